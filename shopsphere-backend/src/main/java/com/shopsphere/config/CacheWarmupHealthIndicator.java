@@ -0,0 +1,34 @@
+package com.shopsphere.config;
+
+import com.shopsphere.service.CacheWarmupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports cache warm-up progress; part of the readiness group (see application.yml),
+ * so load balancers hold traffic back until the caches are warm.
+ */
+@Component
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+    
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+    
+    @Override
+    public Health health() {
+        CacheWarmupService.Phase phase = cacheWarmupService.getPhase();
+        Health.Builder builder = switch (phase) {
+            case COMPLETED -> Health.up();
+            // Warm-up failures degrade latency, not correctness, so they do not block readiness
+            case FAILED -> Health.up().withDetail("error", String.valueOf(cacheWarmupService.getFailureMessage()));
+            default -> Health.outOfService();
+        };
+        return builder
+            .withDetail("phase", phase)
+            .withDetail("warmedProducts", cacheWarmupService.getWarmedProducts())
+            .withDetail("targetProducts", cacheWarmupService.getTargetProducts())
+            .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.shopsphere.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connection pools per workload, all behind one routing application DataSource:
+ * - primary (OLTP): web requests, configured by spring.datasource.hikari
+ * - replica-N: read-only request transactions, one per shopsphere.datasource.replica-urls entry
+ * - batch: schedulers, outbox dispatch and seeders, on the primary
+ * - analytics: recommendation builds and cache warm-up, on the first replica if any, else the primary
+ *
+ * Every pool publishes Hikari's Micrometer metrics (hikaricp.connections.active, .idle,
+ * .pending, .acquire wait time, .timeout) tagged with its pool name, plus a
+ * shopsphere.datasource.pool.saturation gauge (active / maximum).
+ */
+@Configuration
+public class DataSourceConfig {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${shopsphere.datasource.replica-urls:}")
+    private List<String> replicaUrls;
+    
+    @Value("${shopsphere.datasource.batch.maximum-pool-size:5}")
+    private int batchPoolSize;
+    
+    // Background work can wait for a connection longer than a web request
+    @Value("${shopsphere.datasource.batch.connection-timeout-ms:60000}")
+    private long batchConnectionTimeoutMs;
+    
+    @Value("${shopsphere.datasource.analytics.maximum-pool-size:3}")
+    private int analyticsPoolSize;
+    
+    @Value("${shopsphere.datasource.analytics.connection-timeout-ms:120000}")
+    private long analyticsConnectionTimeoutMs;
+    
+    // Not beans, so closed here on shutdown
+    private final List<HikariDataSource> extraPools = new ArrayList<>();
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource) {
+        instrument(primaryDataSource);
+        
+        List<HikariDataSource> replicas = new ArrayList<>();
+        if (replicaUrls != null) {
+            for (String url : replicaUrls) {
+                if (!url.isBlank()) {
+                    // Replicas share the primary's credentials and pool settings
+                    replicas.add(pool(primaryDataSource, "replica-" + replicas.size(), url.trim(), true,
+                        primaryDataSource.getMaximumPoolSize(), primaryDataSource.getConnectionTimeout()));
+                }
+            }
+        }
+        HikariDataSource batch = pool(primaryDataSource, "batch", primaryDataSource.getJdbcUrl(), false,
+            batchPoolSize, batchConnectionTimeoutMs);
+        HikariDataSource analytics = replicas.isEmpty()
+            ? pool(primaryDataSource, "analytics", primaryDataSource.getJdbcUrl(), false, analyticsPoolSize, analyticsConnectionTimeoutMs)
+            : pool(primaryDataSource, "analytics", replicas.get(0).getJdbcUrl(), true, analyticsPoolSize, analyticsConnectionTimeoutMs);
+        
+        System.out.println("✅ Connection pools: primary " + primaryDataSource.getMaximumPoolSize() + ", batch " + batchPoolSize
+            + ", analytics " + analyticsPoolSize + (replicas.isEmpty() ? "" : ", " + replicas.size() + " replica(s)"));
+        
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryDataSource, replicas, batch, analytics);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+    
+    private HikariDataSource pool(HikariDataSource template, String name, String jdbcUrl, boolean readOnly,
+                                  int maximumPoolSize, long connectionTimeoutMs) {
+        // Default constructor: like the primary, the pool starts on first use
+        HikariDataSource pool = new HikariDataSource();
+        template.copyStateTo(pool);
+        pool.setPoolName(name);
+        pool.setJdbcUrl(jdbcUrl);
+        pool.setReadOnly(readOnly);
+        pool.setMaximumPoolSize(maximumPoolSize);
+        pool.setMinimumIdle(Math.min(pool.getMinimumIdle(), maximumPoolSize));
+        pool.setConnectionTimeout(connectionTimeoutMs);
+        pool.setMetricsTrackerFactory(null);
+        instrument(pool);
+        extraPools.add(pool);
+        return pool;
+    }
+    
+    private void instrument(HikariDataSource pool) {
+        if (pool.getMetricsTrackerFactory() == null && pool.getMetricRegistry() == null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+        Gauge.builder("shopsphere.datasource.pool.saturation", pool, DataSourceConfig::saturation)
+            .tag("pool", pool.getPoolName())
+            .description("Active connections as a share of the pool's maximum size")
+            .register(meterRegistry);
+    }
+    
+    private static double saturation(HikariDataSource pool) {
+        if (pool.getHikariPoolMXBean() == null || pool.getMaximumPoolSize() == 0) {
+            return 0;
+        }
+        return (double) pool.getHikariPoolMXBean().getActiveConnections() / pool.getMaximumPoolSize();
+    }
+    
+    @PreDestroy
+    public void closePools() {
+        extraPools.forEach(HikariDataSource::close);
+    }
+}
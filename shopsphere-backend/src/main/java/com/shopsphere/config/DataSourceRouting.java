@@ -0,0 +1,58 @@
+package com.shopsphere.config;
+
+/**
+ * Per-thread routing hints for ReadWriteRoutingDataSource.
+ *
+ * The workload picks the connection pool: request traffic (OLTP) uses the primary pool,
+ * with read-only transactions going to a replica unless the thread has been pinned to the
+ * primary, e.g. for a user who has just written and must read their own changes. Scheduled
+ * jobs and seeders (BATCH) and model builds or warm-ups (ANALYTICS) get pools of their own
+ * so they cannot starve web requests. Set the workload with @DatabaseWorkload.
+ */
+public final class DataSourceRouting {
+    
+    public enum Workload {
+        OLTP, BATCH, ANALYTICS
+    }
+    
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+    private static final ThreadLocal<Workload> WORKLOAD = new ThreadLocal<>();
+    
+    private DataSourceRouting() {
+    }
+    
+    public static void pinToPrimary() {
+        PRIMARY_PINNED.set(Boolean.TRUE);
+    }
+    
+    public static void clear() {
+        PRIMARY_PINNED.remove();
+    }
+    
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PRIMARY_PINNED.get());
+    }
+    
+    public static Workload currentWorkload() {
+        Workload workload = WORKLOAD.get();
+        return workload != null ? workload : Workload.OLTP;
+    }
+    
+    /**
+     * Switch the thread's workload and return the previous one, to be handed back to
+     * restoreWorkload when the work is done.
+     */
+    public static Workload useWorkload(Workload workload) {
+        Workload previous = WORKLOAD.get();
+        WORKLOAD.set(workload);
+        return previous;
+    }
+    
+    public static void restoreWorkload(Workload previous) {
+        if (previous == null) {
+            WORKLOAD.remove();
+        } else {
+            WORKLOAD.set(previous);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.shopsphere.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated method, or every public method of the annotated class, on the
+ * connection pool of the given workload. A method annotation wins over the class one.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface DatabaseWorkload {
+    
+    DataSourceRouting.Workload value();
+}
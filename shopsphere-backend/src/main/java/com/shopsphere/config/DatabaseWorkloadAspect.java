@@ -0,0 +1,39 @@
+package com.shopsphere.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies @DatabaseWorkload. Ordered ahead of the transaction interceptor so the workload
+ * is set before a transaction asks for its connection.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DatabaseWorkloadAspect {
+    
+    @Around("@annotation(com.shopsphere.config.DatabaseWorkload) || @within(com.shopsphere.config.DatabaseWorkload)")
+    public Object useWorkload(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        DatabaseWorkload workload = AnnotatedElementUtils.findMergedAnnotation(signature.getMethod(), DatabaseWorkload.class);
+        if (workload == null) {
+            workload = AnnotatedElementUtils.findMergedAnnotation(joinPoint.getTarget().getClass(), DatabaseWorkload.class);
+        }
+        if (workload == null) {
+            return joinPoint.proceed();
+        }
+        
+        DataSourceRouting.Workload previous = DataSourceRouting.useWorkload(workload.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            DataSourceRouting.restoreWorkload(previous);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.shopsphere.config;
+
+import com.shopsphere.event.ProductChangeListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers Spring-managed Hibernate event listeners with the session factory.
+ */
+@Configuration
+public class HibernateListenerConfig {
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private ProductChangeListener productChangeListener;
+    
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        
+        registry.appendListeners(EventType.POST_INSERT, productChangeListener);
+        registry.appendListeners(EventType.POST_UPDATE, productChangeListener);
+        registry.appendListeners(EventType.POST_DELETE, productChangeListener);
+    }
+}
@@ -0,0 +1,54 @@
+package com.shopsphere.config;
+
+import com.shopsphere.service.ReadYourWritesService;
+import com.shopsphere.util.JwtUtil;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Read-your-writes for replica routing: requests from a user who wrote in the last few
+ * seconds read from the primary, and every successful write request by an authenticated
+ * user starts such a window.
+ */
+@Component
+public class PrimaryPinningFilter extends OncePerRequestFilter {
+    
+    @Autowired
+    private ReadYourWritesService readYourWritesService;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authHeader = request.getHeader("Authorization");
+        if (!readYourWritesService.isEnabled() || authHeader == null || !authHeader.startsWith("Bearer ")) {
+            chain.doFilter(request, response);
+            return;
+        }
+        
+        Long userId = jwtUtil.getUserIdFromToken(authHeader);
+        if (readYourWritesService.isPinned(userId)) {
+            DataSourceRouting.pinToPrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DataSourceRouting.clear();
+        }
+        
+        boolean write = !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())
+            && !"OPTIONS".equals(request.getMethod());
+        if (write && response.getStatus() < 400) {
+            readYourWritesService.recordWrite(userId);
+        }
+    }
+}
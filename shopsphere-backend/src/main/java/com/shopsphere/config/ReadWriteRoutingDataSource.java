@@ -0,0 +1,60 @@
+package com.shopsphere.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the connection pool for the current thread. Batch and analytics work use their
+ * own pools; request traffic sends read-only transactions to the replica pools
+ * (round-robin) and everything else, including work outside a transaction, to the
+ * primary. Must sit behind a LazyConnectionDataSourceProxy so the connection is chosen
+ * after the transaction's read-only flag is known.
+ */
+class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    
+    static final String PRIMARY = "primary";
+    static final String BATCH = "batch";
+    static final String ANALYTICS = "analytics";
+    private static final String REPLICA_PREFIX = "replica-";
+    
+    private final int replicaCount;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    
+    ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, DataSource batch, DataSource analytics) {
+        this.replicaCount = replicas.size();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.put(BATCH, batch);
+        targets.put(ANALYTICS, analytics);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(REPLICA_PREFIX + i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        switch (DataSourceRouting.currentWorkload()) {
+            case BATCH:
+                return BATCH;
+            case ANALYTICS:
+                return ANALYTICS;
+            default:
+                break;
+        }
+        if (replicaCount == 0
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || DataSourceRouting.isPinnedToPrimary()) {
+            return PRIMARY;
+        }
+        return REPLICA_PREFIX + Math.floorMod(nextReplica.getAndIncrement(), replicaCount);
+    }
+}
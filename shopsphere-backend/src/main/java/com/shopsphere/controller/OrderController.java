@@ -1,15 +1,28 @@
 package com.shopsphere.controller;
 
+import com.shopsphere.dto.BulkStatusUpdateRequest;
+import com.shopsphere.dto.CreateOrderRequest;
+import com.shopsphere.dto.OrderQuote;
+import com.shopsphere.dto.OrderQuoteRequest;
+import com.shopsphere.dto.OrderSummary;
 import com.shopsphere.model.Order;
+import com.shopsphere.repository.OrderArchiveRepository;
 import com.shopsphere.repository.OrderRepository;
+import com.shopsphere.service.IdempotencyService;
 import com.shopsphere.service.OrderService;
+import com.shopsphere.service.OrderStatusUpdateService;
 import com.shopsphere.util.JwtUtil;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/orders")
@@ -22,13 +35,30 @@ public class OrderController {
     @Autowired
     private OrderRepository orderRepository;
     
+    @Autowired
+    private OrderArchiveRepository orderArchiveRepository;
+    
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private OrderStatusUpdateService orderStatusUpdateService;
+    
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 200;
+    private static final int MAX_ORDER_PAGE_SIZE = 100;
+    
     @PostMapping
-    public ResponseEntity<?> createOrder(@RequestBody Map<String, Object> orderData) {
+    public ResponseEntity<?> createOrder(@Valid @RequestBody CreateOrderRequest orderData,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                         @RequestHeader(value = "Authorization", required = false) String authHeader) {
         try {
             System.out.println("Received order data: " + orderData);
+            if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+                return createOrderIdempotently(orderData, idempotencyKey.trim(), authHeader);
+            }
             Order order = orderService.createOrder(orderData);
             System.out.println("Order created successfully: " + order.getId() + " for user: " + order.getUser().getId());
             return ResponseEntity.ok(order);
@@ -43,55 +73,79 @@ public class OrderController {
         }
     }
     
+    /**
+     * Subtotal, shipping fee and total for a cart, priced exactly as POST /orders will price it.
+     */
+    @PostMapping("/quote")
+    public ResponseEntity<?> quoteOrder(@Valid @RequestBody OrderQuoteRequest request) {
+        try {
+            OrderQuote quote = orderService.quote(request.items());
+            return ResponseEntity.ok(quote);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    /**
+     * Retried submissions carrying the same Idempotency-Key get the stored response of the
+     * first attempt instead of placing (and charging stock for) a second order.
+     */
+    private ResponseEntity<?> createOrderIdempotently(CreateOrderRequest orderData, String idempotencyKey, String authHeader) {
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Idempotency-Key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+            return ResponseEntity.badRequest().body(error);
+        }
+        
+        // Keys are scoped by the token's subject, so a client cannot read another user's stored
+        // order by reusing their key. Without a valid token the only identity is the body's
+        // userId, which the client chooses; such keys live in their own namespace.
+        String subject = jwtUtil.getEmailFromToken(authHeader);
+        String scopedKey = subject != null
+            ? "orders:sub:" + subject + ":" + idempotencyKey
+            : "orders:anon:" + orderData.userId() + ":" + idempotencyKey;
+        IdempotencyService.Result result = idempotencyService.execute(scopedKey, orderData, () -> {
+            Order order = orderService.createOrder(orderData);
+            System.out.println("Order created successfully: " + order.getId() + " for user: " + order.getUser().getId());
+            return order;
+        });
+        if (result.replayed()) {
+            System.out.println("Replayed stored response for Idempotency-Key " + idempotencyKey);
+        }
+        
+        return ResponseEntity.status(result.status())
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+            .body(result.body());
+    }
+    
+    @PostMapping("/admin/bulk-status")
+    public ResponseEntity<?> bulkUpdateStatus(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                              @Valid @RequestBody BulkStatusUpdateRequest request) {
+        if (!"ADMIN".equals(jwtUtil.getRoleFromToken(authHeader))) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Admin access required");
+            return ResponseEntity.status(403).body(error);
+        }
+        
+        List<Long> updated = orderStatusUpdateService.bulkUpdateStatus(request.orderIds(), request.status());
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", request.status());
+        response.put("requested", request.orderIds().size());
+        response.put("updated", updated.size());
+        response.put("updatedOrderIds", updated);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getUserOrders(@PathVariable Long userId) {
+    public ResponseEntity<?> getUserOrders(@PathVariable Long userId,
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(defaultValue = "20") int size,
+                                           @RequestParam(defaultValue = "false") boolean archived) {
         try {
-            System.out.println("=== Fetching orders for user ID: " + userId + " (type: " + userId.getClass() + ") ===");
-            
-            // First, let's check if there are ANY orders in the database
-            List<Order> allOrders = orderRepository.findAll();
-            System.out.println("Total orders in database: " + allOrders.size());
-            if (!allOrders.isEmpty()) {
-                System.out.println("Sample order user ID: " + allOrders.get(0).getUser().getId() + " (type: " + allOrders.get(0).getUser().getId().getClass() + ")");
-            }
-            
-            // Try the primary query method
-            List<Order> orders = orderRepository.findByUserId(userId);
-            System.out.println("Primary query found " + orders.size() + " orders for user " + userId);
-            
-            // If no orders found, try alternative query
-            if (orders.isEmpty()) {
-                System.out.println("Trying alternative query method...");
-                orders = orderRepository.findByUser_Id(userId);
-                System.out.println("Alternative query found " + orders.size() + " orders for user " + userId);
-            }
-            
-            // If still no orders, check all orders and filter manually
-            if (orders.isEmpty()) {
-                System.out.println("No orders found with queries. Checking all orders manually...");
-                for (Order o : allOrders) {
-                    Long orderUserId = o.getUser().getId();
-                    System.out.println("Order ID: " + o.getId() + 
-                        ", User ID: " + orderUserId + 
-                        " (type: " + orderUserId.getClass() + ")" +
-                        ", Requested User ID: " + userId + 
-                        " (type: " + userId.getClass() + ")" +
-                        ", Match: " + orderUserId.equals(userId));
-                    
-                    if (orderUserId.equals(userId)) {
-                        orders.add(o);
-                    }
-                }
-                System.out.println("Manually filtered orders: " + orders.size());
-            }
-            
-            if (!orders.isEmpty()) {
-                System.out.println("Orders found! First order ID: " + orders.get(0).getId());
-            } else {
-                System.out.println("WARNING: No orders found for user " + userId);
-            }
-            
-            return ResponseEntity.ok(orders);
+            return ResponseEntity.ok(orderHistoryPage(userId, page, size, archived));
         } catch (Exception e) {
             System.err.println("Error fetching orders: " + e.getMessage());
             e.printStackTrace();
@@ -102,14 +156,19 @@ public class OrderController {
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
-        return orderRepository.findById(id)
+    public ResponseEntity<Order> getOrderById(@PathVariable Long id,
+                                              @RequestParam(defaultValue = "false") boolean archived) {
+        Optional<Order> order = archived ? orderArchiveRepository.findWithItemsById(id) : orderRepository.findWithItemsById(id);
+        return order
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/my-orders")
-    public ResponseEntity<?> getMyOrders(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+    public ResponseEntity<?> getMyOrders(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                         @RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "20") int size,
+                                         @RequestParam(defaultValue = "false") boolean archived) {
         try {
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
                 Map<String, String> error = new HashMap<>();
@@ -124,37 +183,7 @@ public class OrderController {
                 return ResponseEntity.status(401).body(error);
             }
             
-            System.out.println("=== Fetching orders for authenticated user ID: " + userId + " ===");
-            
-            // Try multiple methods to fetch orders
-            List<Order> orders = orderRepository.findByUserId(userId);
-            System.out.println("Primary query found " + orders.size() + " orders");
-            
-            // If no orders, try alternative
-            if (orders.isEmpty()) {
-                orders = orderRepository.findByUser_Id(userId);
-                System.out.println("Alternative query found " + orders.size() + " orders");
-            }
-            
-            // If still empty, check all orders manually
-            if (orders.isEmpty()) {
-                List<Order> allOrders = orderRepository.findAll();
-                System.out.println("Total orders in DB: " + allOrders.size());
-                for (Order o : allOrders) {
-                    if (o.getUser() != null && o.getUser().getId().equals(userId)) {
-                        orders.add(o);
-                        System.out.println("Found matching order: " + o.getId() + " for user " + userId);
-                    }
-                }
-            }
-            
-            System.out.println("Final result: Found " + orders.size() + " orders for user " + userId);
-            if (!orders.isEmpty()) {
-                System.out.println("First order ID: " + orders.get(0).getId());
-                System.out.println("First order items count: " + (orders.get(0).getOrderItems() != null ? orders.get(0).getOrderItems().size() : 0));
-            }
-            
-            return ResponseEntity.ok(orders);
+            return ResponseEntity.ok(orderHistoryPage(userId, page, size, archived));
         } catch (Exception e) {
             System.err.println("Error fetching orders: " + e.getMessage());
             e.printStackTrace();
@@ -164,11 +193,32 @@ public class OrderController {
         }
     }
     
+    /**
+     * One page of a user's order history as summaries, newest first. A single query whose
+     * cost depends on the page size only, not on how many orders exist. Old delivered and
+     * cancelled orders live in the archive and are only listed when archived=true.
+     */
+    private Map<String, Object> orderHistoryPage(Long userId, int page, int size, boolean archived) {
+        int pageSize = Math.max(1, Math.min(size, MAX_ORDER_PAGE_SIZE));
+        PageRequest pageRequest = PageRequest.of(Math.max(0, page), pageSize);
+        Slice<OrderSummary> orders = archived
+            ? orderArchiveRepository.findSummariesByUserId(userId, pageRequest)
+            : orderRepository.findSummariesByUserId(userId, pageRequest);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("orders", orders.getContent());
+        response.put("archived", archived);
+        response.put("page", orders.getNumber());
+        response.put("size", orders.getSize());
+        response.put("hasNext", orders.hasNext());
+        return response;
+    }
+    
     // Debug endpoint to see all orders
     @GetMapping("/debug/all")
     public ResponseEntity<?> getAllOrders() {
         try {
-            List<Order> allOrders = orderRepository.findAll();
+            List<Order> allOrders = orderRepository.findAllWithDetails();
             System.out.println("=== ALL ORDERS IN DATABASE ===");
             for (Order order : allOrders) {
                 System.out.println("Order ID: " + order.getId() + 
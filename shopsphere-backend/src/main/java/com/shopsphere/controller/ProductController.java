@@ -1,12 +1,27 @@
 package com.shopsphere.controller;
 
 import com.shopsphere.model.Product;
+import com.shopsphere.service.CatalogueService;
+import com.shopsphere.service.CatalogueSnapshot;
+import com.shopsphere.service.HotSkuInventoryService;
 import com.shopsphere.service.ProductService;
 import com.shopsphere.service.RecommendationService;
+import com.shopsphere.util.EncodedResponseCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/products")
@@ -19,16 +34,39 @@ public class ProductController {
     @Autowired
     private RecommendationService recommendationService;
     
+    @Autowired
+    private CatalogueService catalogueService;
+    
+    @Autowired
+    private EncodedResponseCache encodedResponseCache;
+    
+    @Autowired
+    private HotSkuInventoryService hotSkuInventoryService;
+    
+    // Listings tolerate a minute of staleness; product pages carry stock, so revalidate sooner
+    private static final CacheControl LISTING_CACHE_CONTROL = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
+    private static final CacheControl DETAIL_CACHE_CONTROL = CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic();
+    // Recommendations depend on order history as well as the catalogue, so they have no validator
+    private static final CacheControl RECOMMENDATION_CACHE_CONTROL = CacheControl.maxAge(300, TimeUnit.SECONDS).cachePublic();
+    
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<byte[]> getAllProducts(WebRequest request) {
+        return encodedCatalogueResponse("all", request, productService::getAllProducts);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<Product> getProductById(@PathVariable Long id, WebRequest request) {
         try {
+            // Revalidate against the snapshot's updatedAt before touching Redis or MySQL
+            Optional<Product> known = catalogueService.findProduct(id);
+            if (known.isPresent() && known.get().getUpdatedAt() != null) {
+                String etag = "\"p" + id + "-" + Long.toHexString(toEpochMillis(known.get().getUpdatedAt())) + "\"";
+                if (request.checkNotModified(etag, toEpochMillis(known.get().getUpdatedAt()))) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(DETAIL_CACHE_CONTROL).build();
+                }
+            }
             return productService.getProductById(id)
-                .map(ResponseEntity::ok)
+                .map(product -> ResponseEntity.ok().cacheControl(DETAIL_CACHE_CONTROL).body(product))
                 .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
             e.printStackTrace();
@@ -37,24 +75,27 @@ public class ProductController {
     }
     
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(productService.getProductsByCategory(category));
+    public ResponseEntity<byte[]> getProductsByCategory(@PathVariable String category, WebRequest request) {
+        // Only categories the catalogue has get a cache entry, so arbitrary paths cannot evict the hot ones
+        String normalized = category.trim().toLowerCase(Locale.ROOT);
+        String cacheKey = catalogueService.getSnapshot().categories().contains(normalized) ? "category:" + normalized : null;
+        return encodedCatalogueResponse(cacheKey, request, () -> productService.getProductsByCategory(category));
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String q) {
-        return ResponseEntity.ok(productService.searchProducts(q));
+    public ResponseEntity<List<Product>> searchProducts(@RequestParam String q, WebRequest request) {
+        return catalogueResponse(request, LISTING_CACHE_CONTROL, () -> productService.searchProducts(q));
     }
     
     @GetMapping("/top-rated")
-    public ResponseEntity<List<Product>> getTopRatedProducts() {
-        return ResponseEntity.ok(productService.getTopRatedProducts());
+    public ResponseEntity<byte[]> getTopRatedProducts(WebRequest request) {
+        return encodedCatalogueResponse("top-rated", request, productService::getTopRatedProducts);
     }
     
     @GetMapping("/{id}/recommendations")
     public ResponseEntity<List<Product>> getRecommendations(@PathVariable Long id) {
         try {
-            return ResponseEntity.ok(recommendationService.getRecommendations(id));
+            return ResponseEntity.ok().cacheControl(RECOMMENDATION_CACHE_CONTROL).body(recommendationService.getRecommendations(id));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.ok(List.of()); // Return empty list on error instead of 500
@@ -66,7 +107,7 @@ public class ProductController {
         try {
             List<Product> result = recommendationService.getFrequentlyBoughtTogether(id);
             System.out.println("Frequently bought together for product " + id + ": " + result.size() + " products");
-            return ResponseEntity.ok(result);
+            return ResponseEntity.ok().cacheControl(RECOMMENDATION_CACHE_CONTROL).body(result);
         } catch (Exception e) {
             e.printStackTrace();
             System.err.println("Error in getFrequentlyBoughtTogether: " + e.getMessage());
@@ -90,10 +131,14 @@ public class ProductController {
                     if (product.getPrice() != null) existingProduct.setPrice(product.getPrice());
                     if (product.getImageUrl() != null) existingProduct.setImageUrl(product.getImageUrl());
                     if (product.getCategory() != null) existingProduct.setCategory(product.getCategory());
-                    if (product.getStock() != null) existingProduct.setStock(product.getStock());
-                    if (product.getRating() != null) existingProduct.setRating(product.getRating());
-                    if (product.getReviewCount() != null) existingProduct.setReviewCount(product.getReviewCount());
-                    return ResponseEntity.ok(productService.saveProduct(existingProduct));
+                    // rating and reviewCount are derived from reviews and not editable here
+                    Product saved = productService.saveProduct(existingProduct);
+                    // Stock goes through the inventory ledger, which also covers hot SKUs
+                    if (product.getStock() != null) {
+                        hotSkuInventoryService.setStock(id, product.getStock());
+                        saved.setStock(product.getStock());
+                    }
+                    return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
@@ -102,6 +147,19 @@ public class ProductController {
         }
     }
     
+    // Flash-sale SKUs: reserve stock from the Redis ledger instead of the products row
+    @PostMapping("/{id}/hot-sku")
+    public ResponseEntity<Void> markHotSku(@PathVariable Long id) {
+        hotSkuInventoryService.markHot(id);
+        return ResponseEntity.ok().build();
+    }
+    
+    @DeleteMapping("/{id}/hot-sku")
+    public ResponseEntity<Void> unmarkHotSku(@PathVariable Long id) {
+        hotSkuInventoryService.unmarkHot(id);
+        return ResponseEntity.ok().build();
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         try {
@@ -115,5 +173,56 @@ public class ProductController {
             return ResponseEntity.status(500).build();
         }
     }
+    
+    /**
+     * Answers If-None-Match / If-Modified-Since from the catalogue snapshot's tag and
+     * last-modified time, only building the body when the client's copy is stale.
+     */
+    private ResponseEntity<List<Product>> catalogueResponse(WebRequest request, CacheControl cacheControl,
+                                                            Supplier<List<Product>> body) {
+        CatalogueSnapshot snapshot = catalogueService.getSnapshot();
+        long lastModified = snapshot.lastModified() != null ? toEpochMillis(snapshot.lastModified()) : -1;
+        // checkNotModified also writes the ETag and Last-Modified headers for the 200 case
+        if (request.checkNotModified(snapshot.etag(), lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).body(body.get());
+    }
+    
+    /**
+     * Like catalogueResponse, but for the hottest listings: the JSON is serialized and gzipped
+     * once per catalogue version and the cached bytes are written as-is. A null cacheKey
+     * encodes the body without caching it.
+     * Tomcat's own compression skips responses with a strong ETag, so gzip is applied here.
+     */
+    private ResponseEntity<byte[]> encodedCatalogueResponse(String cacheKey, WebRequest request,
+                                                            Supplier<List<Product>> body) {
+        CatalogueSnapshot snapshot = catalogueService.getSnapshot();
+        boolean gzip = EncodedResponseCache.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        // Each encoding is a distinct representation, so it gets its own strong tag
+        String etag = gzip ? snapshot.etag().substring(0, snapshot.etag().length() - 1) + "-gzip\"" : snapshot.etag();
+        long lastModified = snapshot.lastModified() != null ? toEpochMillis(snapshot.lastModified()) : -1;
+        if (request.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(LISTING_CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+        
+        EncodedResponseCache.EncodedResponse encoded = cacheKey != null
+            ? encodedResponseCache.get(cacheKey, snapshot.etag(), body)
+            : encodedResponseCache.encodeUncached(snapshot.etag(), body);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .cacheControl(LISTING_CACHE_CONTROL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.gzip());
+        }
+        return response.body(encoded.identity());
+    }
+    
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 }
-
@@ -1,9 +1,12 @@
 package com.shopsphere.controller;
 
+import com.shopsphere.dto.ReviewCursor;
+import com.shopsphere.dto.ReviewSummary;
 import com.shopsphere.model.Review;
 import com.shopsphere.service.ReviewService;
 import com.shopsphere.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -22,10 +25,13 @@ public class ReviewController {
     @Autowired
     private JwtUtil jwtUtil;
     
+    private static final int MAX_REVIEW_PAGE_SIZE = 50;
+    
+    // Every review of the product, newest first; kept for existing clients, new ones use /page
     @GetMapping("/product/{productId}")
     public ResponseEntity<?> getReviewsByProduct(@PathVariable Long productId) {
         try {
-            List<Review> reviews = reviewService.getReviewsByProductId(productId);
+            List<ReviewSummary> reviews = reviewService.getReviewsByProductId(productId);
             return ResponseEntity.ok(reviews);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -34,6 +40,35 @@ public class ReviewController {
         }
     }
     
+    /**
+     * One page of a product's reviews. sort is newest, highest, lowest or verified; pass the
+     * previous response's nextCursor to continue, which stays stable while new reviews arrive.
+     */
+    @GetMapping("/product/{productId}/page")
+    public ResponseEntity<?> getReviewPage(@PathVariable Long productId,
+                                           @RequestParam(defaultValue = "newest") String sort,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "10") int size) {
+        try {
+            ReviewService.ReviewSort reviewSort = ReviewService.ReviewSort.from(sort);
+            int pageSize = Math.max(1, Math.min(size, MAX_REVIEW_PAGE_SIZE));
+            Slice<ReviewSummary> reviews = reviewService.getReviewPage(productId, reviewSort, cursor, pageSize);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("reviews", reviews.getContent());
+            response.put("sort", reviewSort.name().toLowerCase());
+            response.put("hasNext", reviews.hasNext());
+            response.put("nextCursor", reviews.hasNext()
+                ? ReviewCursor.after(reviews.getContent().get(reviews.getNumberOfElements() - 1)).encode()
+                : null);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
     @GetMapping("/user/{userId}")
     public ResponseEntity<?> getReviewsByUser(@PathVariable Long userId) {
         try {
@@ -159,13 +194,8 @@ public class ReviewController {
             Map<String, Object> response = new HashMap<>();
             response.put("canReview", canReview);
             if (!canReview) {
-                // Check if already reviewed
-                if (reviewService.getReviewsByUserId(userId).stream()
-                    .anyMatch(r -> r.getProductId().equals(productId))) {
-                    response.put("reason", "You have already reviewed this product");
-                } else {
-                    response.put("reason", "Unable to review this product");
-                }
+                // canUserReview only refuses products the user has already reviewed
+                response.put("reason", "You have already reviewed this product");
             }
             return ResponseEntity.ok(response);
         } catch (Exception e) {
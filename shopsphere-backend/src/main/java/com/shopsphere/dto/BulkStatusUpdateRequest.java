@@ -0,0 +1,20 @@
+package com.shopsphere.dto;
+
+import com.shopsphere.model.Order;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Admin request to move many orders to one status, e.g. cancelling a batch.
+ */
+public record BulkStatusUpdateRequest(
+    @NotEmpty(message = "At least one order ID is required")
+    @Size(max = 5000, message = "At most 5000 orders can be updated at once")
+    List<@NotNull Long> orderIds,
+    
+    @NotNull(message = "Status is required")
+    Order.OrderStatus status
+) {
+}
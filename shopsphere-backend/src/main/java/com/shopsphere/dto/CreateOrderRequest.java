@@ -0,0 +1,50 @@
+package com.shopsphere.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Checkout payload for POST /orders. Prices and the order total are not part of the
+ * request; they are computed server-side from the catalogue.
+ */
+public record CreateOrderRequest(
+    @NotNull(message = "User ID is required")
+    Long userId,
+    
+    @NotEmpty(message = "Order must contain at least one item")
+    @Size(max = 100, message = "Order can contain at most 100 items")
+    List<@Valid @NotNull Line> items,
+    
+    @NotBlank(message = "Shipping address is required")
+    @Size(max = 255)
+    String shippingAddress,
+    
+    @NotBlank(message = "Payment method is required")
+    @Size(max = 50)
+    String paymentMethod,
+    
+    String phone,
+    String city,
+    String zipCode,
+    String country,
+    Boolean paymentVerified,
+    String paymentId
+) {
+    
+    public record Line(
+        @NotNull(message = "Product ID is required for all items")
+        Long productId,
+        
+        @NotNull(message = "Quantity is required for all items")
+        @Min(value = 1, message = "Quantity must be at least 1")
+        @Max(value = 1000, message = "Quantity must be at most 1000")
+        Integer quantity
+    ) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.shopsphere.dto;
+
+import com.shopsphere.model.Order;
+import java.time.LocalDateTime;
+
+/**
+ * Minimal view of an order with a pending automatic status change.
+ */
+public record DueOrderTransition(Long id, Order.OrderStatus status, LocalDateTime createdAt,
+                                 LocalDateTime nextTransitionAt) {
+}
@@ -0,0 +1,15 @@
+package com.shopsphere.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Server-side price of a cart: catalogue subtotal, the flat shipping fee and their sum,
+ * which is the totalAmount the order will be placed with. Checkout shows these numbers
+ * instead of computing its own.
+ */
+public record OrderQuote(
+    BigDecimal subtotal,
+    BigDecimal shippingFee,
+    BigDecimal totalAmount
+) {
+}
@@ -0,0 +1,18 @@
+package com.shopsphere.dto;
+
+import com.shopsphere.dto.CreateOrderRequest.Line;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Payload for POST /orders/quote: the cart lines to price, same limits as checkout.
+ */
+public record OrderQuoteRequest(
+    @NotEmpty(message = "Order must contain at least one item")
+    @Size(max = 100, message = "Order can contain at most 100 items")
+    List<@Valid @NotNull Line> items
+) {
+}
@@ -0,0 +1,24 @@
+package com.shopsphere.dto;
+
+import com.shopsphere.model.Order;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Order history row: scalar order columns plus the item count, read in one query without
+ * loading items, products or the user. Item details come from GET /orders/{id}.
+ */
+public record OrderSummary(
+    Long id,
+    Order.OrderStatus status,
+    BigDecimal totalAmount,
+    LocalDateTime createdAt,
+    Integer itemCount,
+    LocalDateTime pendingDate,
+    LocalDateTime confirmedDate,
+    LocalDateTime pickedUpDate,
+    LocalDateTime inTransitDate,
+    LocalDateTime outForDeliveryDate,
+    LocalDateTime deliveredDate
+) {
+}
@@ -0,0 +1,31 @@
+package com.shopsphere.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position after the last review of a page: every column any review sort order is keyed on,
+ * so one opaque token works for all of them. Encoded as URL-safe Base64 for the query string.
+ */
+public record ReviewCursor(Integer rating, Boolean verifiedPurchase, LocalDateTime createdAt, Long id) {
+
+    public static ReviewCursor after(ReviewSummary review) {
+        return new ReviewCursor(review.rating(), review.verifiedPurchase(), review.createdAt(), review.id());
+    }
+
+    public String encode() {
+        String raw = rating + "|" + verifiedPurchase + "|" + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ReviewCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            return new ReviewCursor(Integer.valueOf(parts[0]), Boolean.valueOf(parts[1]),
+                LocalDateTime.parse(parts[2]), Long.valueOf(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid review cursor");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.shopsphere.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Public review listing row: the review's own columns with the product as an id, read
+ * without loading the user or product. The author appears only as reviewerName; unlike
+ * Review it carries no userId, since product listings are served without authentication.
+ */
+public record ReviewSummary(
+    Long id,
+    Long productId,
+    Integer rating,
+    String comment,
+    String reviewerName,
+    Boolean verifiedPurchase,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,15 @@
+package com.shopsphere.event;
+
+import java.util.List;
+
+/**
+ * Outbox payload written when an order is placed. Carries the checkout details that
+ * post-checkout work needs, so handlers do not have to re-read the request.
+ * productIds are the products on the order, whose cart lines are cleared.
+ */
+public record OrderPlacedEvent(Long orderId, Long userId, String shippingAddress,
+                               String phone, String city, String zipCode, String country,
+                               List<Long> productIds) {
+    
+    public static final String TYPE = "OrderPlaced";
+}
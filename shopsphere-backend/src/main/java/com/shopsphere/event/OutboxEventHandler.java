@@ -0,0 +1,14 @@
+package com.shopsphere.event;
+
+/**
+ * Processes one type of outbox event. Handlers run in their own transaction and may be
+ * retried after a failure, so they must be idempotent.
+ */
+public interface OutboxEventHandler<T> {
+    
+    String eventType();
+    
+    Class<T> payloadType();
+    
+    void handle(T payload);
+}
@@ -0,0 +1,134 @@
+package com.shopsphere.event;
+
+import com.shopsphere.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Drives cache invalidation for every Product write that goes through Hibernate,
+ * including seeders and migrations that call productRepository.save directly.
+ *
+ * Changed ids are collected per session and handled once, after the transaction
+ * commits, so a bulk job touching hundreds of products costs one invalidation pass.
+ */
+@Component
+public class ProductChangeListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+    
+    // Above this many products in one transaction, clearing the cache is cheaper than evicting keys one by one
+    private static final int BULK_EVICTION_THRESHOLD = 100;
+    
+    private static final String PRODUCTS_CACHE = "products";
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private final Map<SharedSessionContractImplementor, PendingChanges> pending = new ConcurrentHashMap<>();
+    
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Product) {
+            record(event.getSession(), event.getId());
+        }
+    }
+    
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Product) {
+            record(event.getSession(), event.getId());
+        }
+    }
+    
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Product) {
+            record(event.getSession(), event.getId());
+        }
+    }
+    
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+    
+    /**
+     * Records product changes made outside Hibernate (JDBC or bulk JPQL updates) in the
+     * current transaction, so they are invalidated together with the entity writes.
+     */
+    public void productsChanged(Collection<Long> productIds) {
+        EventSource session = entityManager.unwrap(EventSource.class);
+        for (Long productId : productIds) {
+            record(session, productId);
+        }
+    }
+    
+    private void record(EventSource session, Object id) {
+        if (!(id instanceof Long productId)) {
+            return;
+        }
+        PendingChanges changes = pending.computeIfAbsent(session, s -> {
+            PendingChanges created = new PendingChanges();
+            session.getActionQueue().registerProcess(created);
+            return created;
+        });
+        changes.productIds.add(productId);
+    }
+    
+    private void invalidate(Set<Long> productIds) {
+        try {
+            Cache cache = cacheManager.getCache(PRODUCTS_CACHE);
+            if (cache != null) {
+                if (productIds.size() > BULK_EVICTION_THRESHOLD) {
+                    cache.clear();
+                } else {
+                    for (Long productId : productIds) {
+                        cache.evict(productId);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // The write is already committed; a cache outage must not surface as a failed request
+            System.err.println("Product cache eviction failed for " + productIds.size() + " products: " + e.getMessage());
+        }
+        eventPublisher.publishEvent(new ProductsChangedEvent(Collections.unmodifiableSet(productIds)));
+    }
+    
+    private class PendingChanges implements AfterTransactionCompletionProcess {
+        private final Set<Long> productIds = new LinkedHashSet<>();
+        
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            pending.remove(session);
+            if (success && !productIds.isEmpty()) {
+                invalidate(productIds);
+            }
+        }
+    }
+}
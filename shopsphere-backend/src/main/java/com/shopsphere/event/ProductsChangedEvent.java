@@ -0,0 +1,10 @@
+package com.shopsphere.event;
+
+import java.util.Set;
+
+/**
+ * Published once per committed transaction that inserted, updated or deleted products.
+ * Carries the ids of every product touched by that transaction.
+ */
+public record ProductsChangedEvent(Set<Long> productIds) {
+}
@@ -0,0 +1,20 @@
+package com.shopsphere.exception;
+
+/**
+ * Thrown when a stock reservation cannot be satisfied; the surrounding transaction rolls back.
+ */
+public class InsufficientStockException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final Long productId;
+    
+    public InsufficientStockException(Long productId) {
+        super("Insufficient stock for product ID: " + productId);
+        this.productId = productId;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+}
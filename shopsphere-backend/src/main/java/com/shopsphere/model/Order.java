@@ -1,6 +1,7 @@
 package com.shopsphere.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -10,21 +11,36 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@NamedEntityGraph(name = Order.SUMMARY_GRAPH, attributeNodes = @NamedAttributeNode("orderItems"))
+@NamedEntityGraph(name = Order.DETAIL_GRAPH, attributeNodes = @NamedAttributeNode(value = "orderItems", subgraph = "items"),
+    subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")))
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_next_transition_at", columnList = "next_transition_at"),
+    @Index(name = "idx_orders_user_created", columnList = "user_id, createdAt")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Order {
+    // Order with its lines; products stay unloaded (their ids come from the foreign key)
+    public static final String SUMMARY_GRAPH = "order-summary";
+    // Order with its lines and their products, as shown on the order detail view
+    public static final String DETAIL_GRAPH = "order-detail";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled table generator instead of IDENTITY so inserts can be JDBC-batched
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_id_generator")
+    @TableGenerator(name = "order_id_generator", table = "id_generators", pkColumnName = "sequence_name",
+        valueColumnName = "next_val", pkColumnValue = "orders", allocationSize = 50)
     private Long id;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore
     private User user;
     
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<OrderItem> orderItems;
     
     @Column(nullable = false, precision = 10, scale = 2)
@@ -67,6 +83,10 @@ public class Order {
     private LocalDateTime outForDeliveryDate;
     private LocalDateTime deliveredDate;
     
+    // When the next automatic status change is due; null once the order is delivered or cancelled
+    @Column(name = "next_transition_at")
+    private LocalDateTime nextTransitionAt;
+    
     public enum OrderStatus {
         PENDING, CONFIRMED, PICKED_UP, IN_TRANSIT, OUT_FOR_DELIVERY, DELIVERED, CANCELLED
     }
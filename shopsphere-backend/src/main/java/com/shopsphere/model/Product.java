@@ -5,8 +5,11 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 @Entity
@@ -14,6 +17,7 @@ import java.util.Set;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,10 +35,42 @@ public class Product {
     @Column(name = "image_url")
     private String imageUrl;
     private String category;
+    // Changed by InventoryService and HotSkuInventoryService only; an entity save would overwrite
+    // concurrent reservations and, for a hot SKU, bypass its Redis counter
+    @Column(updatable = false)
     private Integer stock;
+    // Maintained by ProductRepository.applyRatingDelta only; entity saves must not overwrite them
+    @Column(updatable = false)
     private Double rating;
+    @Column(updatable = false)
     private Integer reviewCount;
     
+    // Running sum and per-star histogram of review ratings. Only changed through
+    // ProductRepository.applyRatingDelta, never by entity saves, so concurrent reviews cannot lose updates.
+    @JsonIgnore
+    @Column(nullable = false, updatable = false)
+    private Long ratingSum;
+    
+    @JsonIgnore
+    @Column(nullable = false, updatable = false)
+    private Integer oneStarCount;
+    
+    @JsonIgnore
+    @Column(nullable = false, updatable = false)
+    private Integer twoStarCount;
+    
+    @JsonIgnore
+    @Column(nullable = false, updatable = false)
+    private Integer threeStarCount;
+    
+    @JsonIgnore
+    @Column(nullable = false, updatable = false)
+    private Integer fourStarCount;
+    
+    @JsonIgnore
+    @Column(nullable = false, updatable = false)
+    private Integer fiveStarCount;
+    
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private Set<ProductAssociation> associations;
@@ -51,11 +87,28 @@ public class Product {
         updatedAt = LocalDateTime.now();
         if (rating == null) rating = 0.0;
         if (reviewCount == null) reviewCount = 0;
+        if (ratingSum == null) ratingSum = 0L;
+        if (oneStarCount == null) oneStarCount = 0;
+        if (twoStarCount == null) twoStarCount = 0;
+        if (threeStarCount == null) threeStarCount = 0;
+        if (fourStarCount == null) fourStarCount = 0;
+        if (fiveStarCount == null) fiveStarCount = 0;
     }
     
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
+    
+    // Number of reviews per star rating, five stars first, for the product page
+    public Map<Integer, Integer> getRatingDistribution() {
+        Map<Integer, Integer> distribution = new LinkedHashMap<>();
+        distribution.put(5, fiveStarCount != null ? fiveStarCount : 0);
+        distribution.put(4, fourStarCount != null ? fourStarCount : 0);
+        distribution.put(3, threeStarCount != null ? threeStarCount : 0);
+        distribution.put(2, twoStarCount != null ? twoStarCount : 0);
+        distribution.put(1, oneStarCount != null ? oneStarCount : 0);
+        return distribution;
+    }
 }
 
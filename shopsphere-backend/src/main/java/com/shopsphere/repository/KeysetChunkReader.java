@@ -0,0 +1,114 @@
+package com.shopsphere.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Walks a whole table in id order, one chunk at a time, for background jobs that used to
+ * findAll() it. Each chunk is found by keyset (id > last id, so no OFFSET rescans) and
+ * then loaded by id with the requested entity graph, which keeps collection fetches out of
+ * the paged query.
+ *
+ * Every run reads through its own StatelessSession, so nothing it loads is kept in the
+ * caller's persistence context and the caller's managed entities are never flushed or
+ * detached by it. Memory stays bounded by the chunk size. The session uses the caller's
+ * transactional connection when there is one (so it sees the caller's uncommitted writes),
+ * otherwise a connection of its own for the duration of the run. Entities handed to the
+ * handler are detached: lazy associations outside the entity graph are not loaded, and
+ * changes must be saved through a repository.
+ */
+@Component
+public class KeysetChunkReader {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${shopsphere.batch.chunk-size:500}")
+    private int defaultChunkSize;
+
+    /**
+     * What to read: an entity with a Long "id", an optional JPQL condition on alias "e"
+     * with its parameters, an optional named entity graph, and an optional chunk size.
+     */
+    public record Query<T>(Class<T> type, String condition, Map<String, Object> parameters, String entityGraph, int chunkSize) {
+
+        public static <T> Query<T> of(Class<T> type) {
+            return new Query<>(type, null, Map.of(), null, 0);
+        }
+
+        public Query<T> where(String condition, Map<String, Object> parameters) {
+            return new Query<>(type, condition, parameters, entityGraph, chunkSize);
+        }
+
+        public Query<T> fetch(String entityGraph) {
+            return new Query<>(type, condition, parameters, entityGraph, chunkSize);
+        }
+
+        public Query<T> chunkSize(int chunkSize) {
+            return new Query<>(type, condition, parameters, entityGraph, chunkSize);
+        }
+    }
+
+    public <T> long forEachChunk(Class<T> type, Consumer<List<T>> handler) {
+        return forEachChunk(Query.of(type), handler);
+    }
+
+    /**
+     * Hand every matching entity to the handler, chunk by chunk in ascending id order.
+     * Returns the number of entities read.
+     */
+    public <T> long forEachChunk(Query<T> query, Consumer<List<T>> handler) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        int chunkSize = query.chunkSize() > 0 ? query.chunkSize() : defaultChunkSize;
+        String entity = sessionFactory.getMetamodel().entity(query.type()).getName();
+        String condition = query.condition() != null ? " AND (" + query.condition() + ")" : "";
+        Map<String, Object> parameters = new HashMap<>(query.parameters());
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (StatelessSession session = sessionFactory.withStatelessOptions().connection(connection).openStatelessSession()) {
+            long read = 0;
+            Long lastId = 0L;
+            while (true) {
+                SelectionQuery<Long> idQuery = session.createSelectionQuery(
+                    "SELECT e.id FROM " + entity + " e WHERE e.id > :lastId" + condition + " ORDER BY e.id", Long.class);
+                parameters.forEach(idQuery::setParameter);
+                List<Long> ids = idQuery.setParameter("lastId", lastId).setMaxResults(chunkSize).getResultList();
+                if (ids.isEmpty()) {
+                    return read;
+                }
+
+                SelectionQuery<T> chunkQuery = session.createSelectionQuery(
+                    "SELECT e FROM " + entity + " e WHERE e.id IN :ids ORDER BY e.id", query.type());
+                if (query.entityGraph() != null) {
+                    chunkQuery.setHint("jakarta.persistence.fetchgraph", sessionFactory.findEntityGraphByName(query.entityGraph()));
+                }
+                List<T> chunk = chunkQuery.setParameter("ids", ids).getResultList();
+                handler.accept(chunk);
+                read += chunk.size();
+
+                if (ids.size() < chunkSize) {
+                    return read;
+                }
+                lastId = ids.get(ids.size() - 1);
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+}
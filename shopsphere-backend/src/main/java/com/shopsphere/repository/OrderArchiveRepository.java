@@ -0,0 +1,156 @@
+package com.shopsphere.repository;
+
+import com.shopsphere.dto.OrderSummary;
+import com.shopsphere.model.Order;
+import com.shopsphere.model.OrderItem;
+import com.shopsphere.model.Product;
+import com.shopsphere.service.CatalogueService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read access to archived orders (see OrderArchiveService). Mirrors the OrderRepository
+ * queries that callers may explicitly extend to the archive; rows come back as detached
+ * Order/OrderItem objects or summaries, never as managed entities.
+ */
+@Repository
+public class OrderArchiveRepository {
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CatalogueService catalogueService;
+
+    // One page of a user's archived order history, newest first (uses idx_orders_archive_user_created)
+    public Slice<OrderSummary> findSummariesByUserId(Long userId, Pageable pageable) {
+        List<OrderSummary> rows = namedJdbcTemplate.query(
+            "SELECT o.id, o.status, o.total_amount, o.created_at, " +
+            "(SELECT COUNT(*) FROM order_items_archive i WHERE i.order_id = o.id) AS item_count, " +
+            "o.pending_date, o.confirmed_date, o.picked_up_date, o.in_transit_date, o.out_for_delivery_date, o.delivered_date " +
+            "FROM orders_archive o WHERE o.user_id = :userId ORDER BY o.created_at DESC, o.id DESC LIMIT :limit OFFSET :offset",
+            new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("limit", pageable.getPageSize() + 1)
+                .addValue("offset", pageable.getOffset()),
+            (rs, rowNum) -> new OrderSummary(
+                rs.getLong("id"),
+                status(rs),
+                rs.getBigDecimal("total_amount"),
+                dateTime(rs, "created_at"),
+                rs.getInt("item_count"),
+                dateTime(rs, "pending_date"),
+                dateTime(rs, "confirmed_date"),
+                dateTime(rs, "picked_up_date"),
+                dateTime(rs, "in_transit_date"),
+                dateTime(rs, "out_for_delivery_date"),
+                dateTime(rs, "delivered_date")));
+
+        // One extra row tells whether another page exists, as Spring Data does for Slice
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    // Archived order with its items and products, for the order detail view
+    public Optional<Order> findWithItemsById(Long id) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id);
+        List<Order> orders = namedJdbcTemplate.query(
+            "SELECT id, total_amount, status, shipping_address, payment_method, created_at, updated_at, pending_date, " +
+            "confirmed_date, picked_up_date, in_transit_date, out_for_delivery_date, delivered_date " +
+            "FROM orders_archive WHERE id = :id",
+            params,
+            (rs, rowNum) -> {
+                Order order = new Order();
+                order.setId(rs.getLong("id"));
+                order.setTotalAmount(rs.getBigDecimal("total_amount"));
+                order.setStatus(status(rs));
+                order.setShippingAddress(rs.getString("shipping_address"));
+                order.setPaymentMethod(rs.getString("payment_method"));
+                order.setCreatedAt(dateTime(rs, "created_at"));
+                order.setUpdatedAt(dateTime(rs, "updated_at"));
+                order.setPendingDate(dateTime(rs, "pending_date"));
+                order.setConfirmedDate(dateTime(rs, "confirmed_date"));
+                order.setPickedUpDate(dateTime(rs, "picked_up_date"));
+                order.setInTransitDate(dateTime(rs, "in_transit_date"));
+                order.setOutForDeliveryDate(dateTime(rs, "out_for_delivery_date"));
+                order.setDeliveredDate(dateTime(rs, "delivered_date"));
+                return order;
+            });
+        if (orders.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Order order = orders.get(0);
+        List<Map<String, Object>> itemRows = namedJdbcTemplate.queryForList(
+            "SELECT id, product_id, quantity, price FROM order_items_archive WHERE order_id = :id ORDER BY id", params);
+        Map<Long, Product> products = loadProducts(itemRows);
+        List<OrderItem> items = new ArrayList<>();
+        for (Map<String, Object> row : itemRows) {
+            OrderItem item = new OrderItem();
+            item.setId(((Number) row.get("id")).longValue());
+            item.setOrder(order);
+            item.setProduct(products.get(((Number) row.get("product_id")).longValue()));
+            item.setQuantity(((Number) row.get("quantity")).intValue());
+            item.setPrice((BigDecimal) row.get("price"));
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        return Optional.of(order);
+    }
+
+    // Archived counterpart of OrderRepository.hasDeliveredOrderContaining
+    public boolean hasDeliveredOrderContaining(Long userId, Long productId) {
+        Integer found = namedJdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM order_items_archive i JOIN orders_archive o ON o.id = i.order_id " +
+            "WHERE i.product_id = :productId AND o.user_id = :userId AND o.status = 'DELIVERED')",
+            new MapSqlParameterSource().addValue("userId", userId).addValue("productId", productId), Integer.class);
+        return found != null && found == 1;
+    }
+
+    // Catalogue copies where possible; products it does not hold are loaded in one query
+    private Map<Long, Product> loadProducts(List<Map<String, Object>> itemRows) {
+        Map<Long, Product> products = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Map<String, Object> row : itemRows) {
+            Long productId = ((Number) row.get("product_id")).longValue();
+            catalogueService.findProduct(productId).ifPresentOrElse(
+                product -> products.put(productId, product),
+                () -> missing.add(productId));
+        }
+        if (!missing.isEmpty()) {
+            productRepository.findAllById(missing).forEach(product -> products.put(product.getId(), product));
+        }
+        return products;
+    }
+
+    private static Order.OrderStatus status(ResultSet rs) throws SQLException {
+        String status = rs.getString("status");
+        return status != null ? Order.OrderStatus.valueOf(status) : null;
+    }
+
+    private static LocalDateTime dateTime(ResultSet rs, String column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value != null ? value.toLocalDateTime() : null;
+    }
+}
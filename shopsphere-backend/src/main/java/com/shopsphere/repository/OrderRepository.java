@@ -1,35 +1,69 @@
 package com.shopsphere.repository;
 
+import com.shopsphere.dto.DueOrderTransition;
+import com.shopsphere.dto.OrderSummary;
 import com.shopsphere.model.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    // Query orders by user ID using EntityGraph for eager loading
-    @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "user"})
-    @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC")
-    List<Order> findByUserId(@Param("userId") Long userId);
-    
-    // Alternative query using JOIN
-    @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "user"})
-    @Query("SELECT o FROM Order o JOIN o.user u WHERE u.id = :userId ORDER BY o.createdAt DESC")
-    List<Order> findByUser_Id(@Param("userId") Long userId);
-    
-    @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "user"})
-    @Query("SELECT o FROM Order o WHERE o.status != 'CANCELLED'")
-    List<Order> findAllWithOrderItems();
+    // One page of a user's order history as summaries (uses idx_orders_user_created); Slice avoids a count query
+    @Query("SELECT new com.shopsphere.dto.OrderSummary(o.id, o.status, o.totalAmount, o.createdAt, SIZE(o.orderItems), " +
+           "o.pendingDate, o.confirmedDate, o.pickedUpDate, o.inTransitDate, o.outForDeliveryDate, o.deliveredDate) " +
+           "FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<OrderSummary> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    // Single order with its items and products, for the order detail view
+    @EntityGraph(Order.DETAIL_GRAPH)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findWithItemsById(@Param("id") Long id);
+    
+    @EntityGraph(Order.DETAIL_GRAPH)
+    @Query("SELECT o FROM Order o")
+    List<Order> findAllWithDetails();
+    
+    // Verified-purchase check for reviews, answered by the database instead of loading the user's orders
+    @Query("SELECT COUNT(oi) > 0 FROM OrderItem oi WHERE oi.order.user.id = :userId " +
+           "AND oi.product.id = :productId AND oi.order.status = 'DELIVERED'")
+    boolean hasDeliveredOrderContaining(@Param("userId") Long userId, @Param("productId") Long productId);
+    
+    // Association rules: non-cancelled orders containing the product
+    @Query("SELECT COUNT(DISTINCT oi.order.id) FROM OrderItem oi WHERE oi.product.id = :productId AND oi.order.status <> 'CANCELLED'")
+    long countOrdersContainingProduct(@Param("productId") Long productId);
+    
+    // Association rules: [other product id, number of those orders that also contain it]
+    @Query("SELECT other.product.id, COUNT(DISTINCT other.order.id) FROM OrderItem target " +
+           "JOIN OrderItem other ON other.order = target.order " +
+           "WHERE target.product.id = :productId AND other.product.id <> :productId AND target.order.status <> 'CANCELLED' " +
+           "GROUP BY other.product.id")
+    List<Object[]> countOrdersContainingProductWith(@Param("productId") Long productId);
+    
+    // Best-selling product ids by units sold since the given time
+    @Query("SELECT oi.product.id FROM OrderItem oi WHERE oi.order.createdAt >= :since GROUP BY oi.product.id ORDER BY SUM(oi.quantity) DESC")
+    List<Long> findTopSellingProductIds(@Param("since") LocalDateTime since, Pageable pageable);
+    
+    // Orders whose next automatic status change is due, oldest first (uses idx_orders_next_transition_at)
+    @Query("SELECT new com.shopsphere.dto.DueOrderTransition(o.id, o.status, o.createdAt, o.nextTransitionAt) FROM Order o " +
+           "WHERE o.nextTransitionAt <= :now ORDER BY o.nextTransitionAt")
+    List<DueOrderTransition> findDueTransitions(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    // Same, restricted to one hash partition of the order id (multi-node scheduling)
+    @Query("SELECT new com.shopsphere.dto.DueOrderTransition(o.id, o.status, o.createdAt, o.nextTransitionAt) FROM Order o " +
+           "WHERE o.nextTransitionAt <= :now AND MOD(o.id, :partitions) = :partition ORDER BY o.nextTransitionAt")
+    List<DueOrderTransition> findDueTransitionsInPartition(@Param("now") LocalDateTime now, @Param("partitions") long partitions,
+                                                          @Param("partition") long partition, Pageable pageable);
+    
+    // Every order with a pending automatic status change, for rebuilding the in-memory timers
+    @Query("SELECT new com.shopsphere.dto.DueOrderTransition(o.id, o.status, o.createdAt, o.nextTransitionAt) FROM Order o " +
+           "WHERE o.nextTransitionAt IS NOT NULL ORDER BY o.nextTransitionAt, o.id")
+    List<DueOrderTransition> findPendingTransitions(Pageable pageable);
 }
-
-
-
-
-
-
-
-
-
@@ -2,9 +2,11 @@ package com.shopsphere.repository;
 
 import com.shopsphere.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Repository
@@ -12,12 +14,40 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategory(String category);
     List<Product> findByNameContainingIgnoreCase(String name);
     java.util.Optional<Product> findByName(String name);
+    List<Product> findByUpdatedAtAfter(java.time.LocalDateTime updatedAt);
     
     @Query("SELECT p FROM Product p WHERE p.stock > 0 ORDER BY p.rating DESC")
     List<Product> findTopRatedProducts();
     
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(p.category) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<Product> searchProducts(@Param("query") String query);
+    
+    /**
+     * Applies one review write to the rating aggregates in a single atomic UPDATE: adds the
+     * deltas to rating_sum and the star histogram, and derives rating and review_count from the
+     * histogram. rating and review_count are assigned first so they read the pre-update columns
+     * (MySQL evaluates SET left to right). Bypasses Hibernate, so callers must notify
+     * ProductChangeListener.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE products SET " +
+           "rating = CASE WHEN one_star_count + two_star_count + three_star_count + four_star_count + five_star_count + :countDelta > 0 " +
+           "THEN (rating_sum + :sumDelta) / (one_star_count + two_star_count + three_star_count + four_star_count + five_star_count + :countDelta) " +
+           "ELSE 0 END, " +
+           "review_count = one_star_count + two_star_count + three_star_count + four_star_count + five_star_count + :countDelta, " +
+           "rating_sum = rating_sum + :sumDelta, " +
+           "one_star_count = one_star_count + :oneStarDelta, " +
+           "two_star_count = two_star_count + :twoStarDelta, " +
+           "three_star_count = three_star_count + :threeStarDelta, " +
+           "four_star_count = four_star_count + :fourStarDelta, " +
+           "five_star_count = five_star_count + :fiveStarDelta, " +
+           "updated_at = NOW(6) " +
+           "WHERE id = :productId", nativeQuery = true)
+    int applyRatingDelta(@Param("productId") Long productId, @Param("sumDelta") int sumDelta, @Param("countDelta") int countDelta,
+                         @Param("oneStarDelta") int oneStarDelta, @Param("twoStarDelta") int twoStarDelta,
+                         @Param("threeStarDelta") int threeStarDelta, @Param("fourStarDelta") int fourStarDelta,
+                         @Param("fiveStarDelta") int fiveStarDelta);
 }
 
 
@@ -1,17 +1,50 @@
 package com.shopsphere.repository;
 
+import com.shopsphere.dto.ReviewSummary;
 import com.shopsphere.model.Review;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
-    @Query("SELECT r FROM Review r WHERE r.product.id = :productId ORDER BY r.createdAt DESC")
-    List<Review> findByProductIdOrderByCreatedAtDesc(@Param("productId") Long productId);
+    // Review columns with the product as its foreign-key id; no entity is joined or loaded
+    String SUMMARY_SELECT = "SELECT new com.shopsphere.dto.ReviewSummary(r.id, r.product.id, r.rating, " +
+                            "r.comment, r.reviewerName, r.verifiedPurchase, r.createdAt, r.updatedAt) " +
+                            "FROM Review r WHERE r.product.id = :productId ";
+    
+    @Query(SUMMARY_SELECT + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReviewSummary> findSummariesByProductId(@Param("productId") Long productId);
+    
+    // Keyset pages, one per sort order: rows strictly after the cursor in the ORDER BY (see V6 indexes)
+    @Query(SUMMARY_SELECT + "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    Slice<ReviewSummary> findNewestPage(@Param("productId") Long productId, @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "AND (r.rating < :rating OR (r.rating = :rating AND " +
+           "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)))) " +
+           "ORDER BY r.rating DESC, r.createdAt DESC, r.id DESC")
+    Slice<ReviewSummary> findHighestRatedPage(@Param("productId") Long productId, @Param("rating") Integer rating,
+                                              @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "AND (r.rating > :rating OR (r.rating = :rating AND " +
+           "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id > :id)))) " +
+           "ORDER BY r.rating ASC, r.createdAt DESC, r.id ASC")
+    Slice<ReviewSummary> findLowestRatedPage(@Param("productId") Long productId, @Param("rating") Integer rating,
+                                             @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "AND ((r.verifiedPurchase = false AND :verified = true) OR (r.verifiedPurchase = :verified AND " +
+           "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)))) " +
+           "ORDER BY r.verifiedPurchase DESC, r.createdAt DESC, r.id DESC")
+    Slice<ReviewSummary> findVerifiedFirstPage(@Param("productId") Long productId, @Param("verified") Boolean verified,
+                                               @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
     
     @Query("SELECT r FROM Review r WHERE r.user.id = :userId ORDER BY r.createdAt DESC")
     List<Review> findByUserId(@Param("userId") Long userId);
@@ -19,9 +52,6 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT r FROM Review r WHERE r.user.id = :userId AND r.product.id = :productId")
     Optional<Review> findByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
     
-    @Query("SELECT AVG(r.rating) FROM Review r WHERE r.product.id = :productId")
-    Double getAverageRatingByProductId(@Param("productId") Long productId);
-    
     @Query("SELECT COUNT(r) FROM Review r WHERE r.product.id = :productId")
     Long getReviewCountByProductId(@Param("productId") Long productId);
     
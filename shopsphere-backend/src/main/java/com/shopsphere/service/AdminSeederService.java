@@ -1,5 +1,7 @@
 package com.shopsphere.service;
 
+import com.shopsphere.config.DataSourceRouting;
+import com.shopsphere.config.DatabaseWorkload;
 import com.shopsphere.model.User;
 import com.shopsphere.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +11,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 @Component
+@DatabaseWorkload(DataSourceRouting.Workload.BATCH)
 @Order(0) // Run first, before other seeders
 public class AdminSeederService implements CommandLineRunner {
     
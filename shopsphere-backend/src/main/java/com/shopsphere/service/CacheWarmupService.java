@@ -0,0 +1,161 @@
+package com.shopsphere.service;
+
+import com.shopsphere.config.DataSourceRouting;
+import com.shopsphere.config.DatabaseWorkload;
+import com.shopsphere.model.Product;
+import com.shopsphere.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Preloads caches after startup so the first traffic after a deploy does not hit MySQL cold.
+ *
+ * Runs on ApplicationReadyEvent, which Spring Boot publishes after all seeders have run
+ * and before it switches readiness to ACCEPTING_TRAFFIC, so the instance only reports
+ * ready once warm-up has finished. Progress is exposed through CacheWarmupHealthIndicator.
+ */
+@Service
+@DatabaseWorkload(DataSourceRouting.Workload.ANALYTICS)
+public class CacheWarmupService {
+    
+    private static final String PRODUCTS_CACHE = "products";
+    
+    // Keeps a single pipelined round trip to a reasonable size
+    private static final int PIPELINE_BATCH_SIZE = 100;
+    
+    public enum Phase {
+        PENDING, LOADING_CATALOGUE, WARMING_REDIS, COMPLETED, FAILED
+    }
+    
+    @Autowired
+    private CatalogueService catalogueService;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private RedisCacheConfiguration cacheConfiguration;
+    
+    @Value("${shopsphere.cache.warmup.top-products:200}")
+    private int topProducts;
+    
+    @Value("${shopsphere.cache.warmup.lookback-days:7}")
+    private int lookbackDays;
+    
+    private volatile Phase phase = Phase.PENDING;
+    private volatile int warmedProducts;
+    private volatile int targetProducts;
+    private volatile String failureMessage;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        warmUp();
+    }
+    
+    public synchronized void warmUp() {
+        long start = System.currentTimeMillis();
+        warmedProducts = 0;
+        targetProducts = 0;
+        failureMessage = null;
+        try {
+            // Local tier: the catalogue snapshot backs listings, categories and search
+            phase = Phase.LOADING_CATALOGUE;
+            CatalogueSnapshot snapshot = catalogueService.getSnapshot();
+            
+            // Redis tier: product detail entries for the hottest products
+            phase = Phase.WARMING_REDIS;
+            List<Product> hotProducts = selectHotProducts(snapshot);
+            targetProducts = hotProducts.size();
+            for (int from = 0; from < hotProducts.size(); from += PIPELINE_BATCH_SIZE) {
+                List<Product> batch = hotProducts.subList(from, Math.min(from + PIPELINE_BATCH_SIZE, hotProducts.size()));
+                writePipelined(batch);
+                warmedProducts += batch.size();
+            }
+            
+            phase = Phase.COMPLETED;
+            System.out.println("✅ Cache warm-up completed: " + snapshot.size() + " products in catalogue snapshot, "
+                + warmedProducts + " hot products written to Redis in " + (System.currentTimeMillis() - start) + "ms");
+        } catch (Exception e) {
+            // A cold cache is slower, not broken; never keep the instance out of service because of it
+            failureMessage = e.getMessage();
+            phase = Phase.FAILED;
+            System.err.println("❌ Cache warm-up failed after " + warmedProducts + " products: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Best sellers over the lookback window first, topped up with the highest rated products.
+     * Product views are not tracked, so sales and ratings are the available popularity signals.
+     */
+    private List<Product> selectHotProducts(CatalogueSnapshot snapshot) {
+        Set<Long> ids = new LinkedHashSet<>(orderRepository.findTopSellingProductIds(
+            LocalDateTime.now().minusDays(lookbackDays), PageRequest.of(0, topProducts)));
+        for (Product p : snapshot.topRated()) {
+            if (ids.size() >= topProducts) {
+                break;
+            }
+            ids.add(p.getId());
+        }
+        return ids.stream()
+            .map(snapshot::find)
+            .flatMap(java.util.Optional::stream)
+            .toList();
+    }
+    
+    // Writes entries exactly as RedisCacheManager would for @Cacheable("products"), in one round trip
+    private void writePipelined(List<Product> products) {
+        Duration ttl = cacheConfiguration.getTtlFunction().getTimeToLive(null, null);
+        Expiration expiration = ttl.isZero() ? Expiration.persistent() : Expiration.from(ttl);
+        String keyPrefix = cacheConfiguration.getKeyPrefixFor(PRODUCTS_CACHE);
+        
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Product product : products) {
+                byte[] key = toBytes(cacheConfiguration.getKeySerializationPair().write(keyPrefix + product.getId()));
+                byte[] value = toBytes(cacheConfiguration.getValueSerializationPair().write(product));
+                connection.stringCommands().set(key, value, expiration, RedisStringCommands.SetOption.upsert());
+            }
+            return null;
+        });
+    }
+    
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+    
+    public Phase getPhase() {
+        return phase;
+    }
+    
+    public int getWarmedProducts() {
+        return warmedProducts;
+    }
+    
+    public int getTargetProducts() {
+        return targetProducts;
+    }
+    
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+}
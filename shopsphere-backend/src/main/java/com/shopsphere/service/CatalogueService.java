@@ -0,0 +1,146 @@
+package com.shopsphere.service;
+
+import com.shopsphere.config.DataSourceRouting;
+import com.shopsphere.config.DatabaseWorkload;
+import com.shopsphere.event.ProductsChangedEvent;
+import com.shopsphere.model.Product;
+import com.shopsphere.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Serves read-only catalogue queries from an in-memory {@link CatalogueSnapshot}
+ * instead of re-reading the products table on every request.
+ *
+ * The snapshot is kept current in three ways:
+ * - products changed on this node are reloaded shortly after commit (ProductsChangedEvent)
+ * - products changed elsewhere are picked up by polling for newer updatedAt values
+ * - a periodic full rebuild catches anything the deltas cannot see, such as remote deletes
+ */
+@Service
+public class CatalogueService {
+    
+    // Overlap for the updatedAt poll so writes from nodes with slightly skewed clocks are not missed
+    private static final long DELTA_OVERLAP_SECONDS = 5;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    private volatile CatalogueSnapshot snapshot;
+    
+    private volatile LocalDateTime lastDeltaCheck;
+    
+    private final Set<Long> pendingProductIds = ConcurrentHashMap.newKeySet();
+    
+    public CatalogueSnapshot getSnapshot() {
+        CatalogueSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+    
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+    
+    public List<Product> getAllProducts() {
+        return getSnapshot().products();
+    }
+    
+    public Optional<Product> findProduct(Long id) {
+        return getSnapshot().find(id);
+    }
+    
+    public List<Product> getProductsByCategory(String category) {
+        return getSnapshot().byCategory(category);
+    }
+    
+    public List<Product> getTopRatedProducts() {
+        return getSnapshot().topRated();
+    }
+    
+    public List<Product> searchProducts(String query) {
+        return getSnapshot().search(query);
+    }
+    
+    /**
+     * Reloads the whole catalogue from the database.
+     */
+    @Scheduled(fixedRate = 3600000, initialDelay = 3600000) // Full rebuild every hour
+    @Transactional(readOnly = true)
+    @DatabaseWorkload(DataSourceRouting.Workload.BATCH)
+    public synchronized void rebuild() {
+        LocalDateTime checkStartedAt = LocalDateTime.now();
+        List<Product> products = productRepository.findAll();
+        long nextVersion = snapshot != null ? snapshot.version() + 1 : 1;
+        snapshot = CatalogueSnapshot.of(nextVersion, products);
+        lastDeltaCheck = checkStartedAt;
+        System.out.println("Catalogue snapshot v" + nextVersion + " loaded with " + products.size() + " products");
+    }
+    
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        // Runs inside the committing transaction's completion; defer the reload to the refresh task
+        pendingProductIds.addAll(event.productIds());
+    }
+    
+    /**
+     * Applies products changed on this node since the last run.
+     */
+    @Scheduled(fixedDelay = 2000)
+    @Transactional(readOnly = true)
+    @DatabaseWorkload(DataSourceRouting.Workload.BATCH)
+    public synchronized void refreshPending() {
+        if (snapshot == null || pendingProductIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>(pendingProductIds);
+        pendingProductIds.removeAll(ids);
+        
+        List<Product> reloaded = productRepository.findAllById(ids);
+        Set<Long> removed = new HashSet<>(ids);
+        removed.removeAll(reloaded.stream().map(Product::getId).collect(Collectors.toSet()));
+        snapshot = snapshot.withChanges(snapshot.version() + 1, reloaded, removed);
+    }
+    
+    /**
+     * Picks up products changed by other nodes or direct database writes, using updatedAt.
+     */
+    @Scheduled(fixedDelay = 30000)
+    @Transactional(readOnly = true)
+    @DatabaseWorkload(DataSourceRouting.Workload.BATCH)
+    public synchronized void refreshDelta() {
+        if (snapshot == null) {
+            return;
+        }
+        LocalDateTime checkStartedAt = LocalDateTime.now();
+        List<Product> changed = productRepository.findByUpdatedAtAfter(lastDeltaCheck.minusSeconds(DELTA_OVERLAP_SECONDS));
+        lastDeltaCheck = checkStartedAt;
+        
+        List<Product> actuallyChanged = changed.stream()
+            .filter(p -> snapshot.find(p.getId())
+                .map(existing -> existing.getUpdatedAt() == null || !existing.getUpdatedAt().equals(p.getUpdatedAt()))
+                .orElse(true))
+            .collect(Collectors.toList());
+        if (!actuallyChanged.isEmpty()) {
+            snapshot = snapshot.withChanges(snapshot.version() + 1, actuallyChanged, Set.of());
+        }
+    }
+}
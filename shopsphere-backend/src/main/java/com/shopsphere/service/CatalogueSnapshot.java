@@ -0,0 +1,239 @@
+package com.shopsphere.service;
+
+import com.shopsphere.model.Product;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable, read-optimised view of the whole product catalogue.
+ *
+ * Products are held as detached copies sorted by id, with the numeric columns the
+ * hot paths filter and sort on (price, rating, stock) duplicated into primitive arrays
+ * and per-category position lists precomputed. Instances are never modified; changes
+ * produce a new snapshot via {@link #withChanges}.
+ */
+public final class CatalogueSnapshot {
+    
+    private static final CatalogueSnapshot EMPTY = new CatalogueSnapshot(0, new Product[0]);
+    
+    private final long version;
+    private final Product[] products;
+    private final long[] ids;
+    private final double[] prices;
+    private final double[] ratings;
+    private final int[] stocks;
+    private final Map<String, int[]> categoryIndex;
+    private final int[] topRated;
+    private final LocalDateTime lastModified;
+    private final String etag;
+    private final List<Product> productList;
+    
+    private CatalogueSnapshot(long version, Product[] sortedProducts) {
+        this.version = version;
+        this.products = sortedProducts;
+        int size = sortedProducts.length;
+        this.ids = new long[size];
+        this.prices = new double[size];
+        this.ratings = new double[size];
+        this.stocks = new int[size];
+        
+        Map<String, List<Integer>> positionsByCategory = new HashMap<>();
+        LocalDateTime maxUpdatedAt = null;
+        long idSum = 0;
+        for (int i = 0; i < size; i++) {
+            Product p = sortedProducts[i];
+            ids[i] = p.getId();
+            idSum += p.getId();
+            prices[i] = p.getPrice() != null ? p.getPrice().doubleValue() : 0.0;
+            ratings[i] = p.getRating() != null ? p.getRating() : 0.0;
+            stocks[i] = p.getStock() != null ? p.getStock() : 0;
+            if (p.getCategory() != null) {
+                positionsByCategory.computeIfAbsent(normalizeCategory(p.getCategory()), k -> new ArrayList<>()).add(i);
+            }
+            if (p.getUpdatedAt() != null && (maxUpdatedAt == null || p.getUpdatedAt().isAfter(maxUpdatedAt))) {
+                maxUpdatedAt = p.getUpdatedAt();
+            }
+        }
+        
+        Map<String, int[]> index = new HashMap<>();
+        positionsByCategory.forEach((category, positions) ->
+            index.put(category, positions.stream().mapToInt(Integer::intValue).toArray()));
+        this.categoryIndex = Collections.unmodifiableMap(index);
+        
+        // Mirrors findTopRatedProducts: in stock only, highest rating first
+        this.topRated = java.util.stream.IntStream.range(0, size)
+            .filter(i -> stocks[i] > 0)
+            .boxed()
+            .sorted((a, b) -> Double.compare(ratings[b], ratings[a]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+        
+        this.lastModified = maxUpdatedAt;
+        // Derived from content rather than the local version counter so every node serves the same tag
+        long lastModifiedMillis = maxUpdatedAt != null ? maxUpdatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+        this.etag = "\"c" + Long.toHexString(lastModifiedMillis) + "-" + Integer.toHexString(size) + "-" + Long.toHexString(idSum) + "\"";
+        this.productList = Collections.unmodifiableList(Arrays.asList(sortedProducts));
+    }
+    
+    public static CatalogueSnapshot empty() {
+        return EMPTY;
+    }
+    
+    public static CatalogueSnapshot of(long version, Collection<Product> products) {
+        Product[] copies = products.stream()
+            .map(CatalogueSnapshot::copyOf)
+            .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+            .toArray(Product[]::new);
+        return new CatalogueSnapshot(version, copies);
+    }
+    
+    /**
+     * Returns a new snapshot with the given products upserted and the given ids removed.
+     */
+    public CatalogueSnapshot withChanges(long newVersion, Collection<Product> upserts, Set<Long> removedIds) {
+        Map<Long, Product> merged = new TreeMap<>();
+        for (Product p : products) {
+            if (!removedIds.contains(p.getId())) {
+                merged.put(p.getId(), p);
+            }
+        }
+        for (Product p : upserts) {
+            merged.put(p.getId(), copyOf(p));
+        }
+        return new CatalogueSnapshot(newVersion, merged.values().toArray(new Product[0]));
+    }
+    
+    public long version() {
+        return version;
+    }
+    
+    public int size() {
+        return products.length;
+    }
+    
+    /**
+     * Latest updatedAt across the catalogue, or null for an empty catalogue.
+     */
+    public LocalDateTime lastModified() {
+        return lastModified;
+    }
+    
+    /**
+     * Strong entity tag for responses derived from the whole catalogue.
+     */
+    public String etag() {
+        return etag;
+    }
+    
+    public List<Product> products() {
+        return productList;
+    }
+    
+    public Optional<Product> find(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        int position = Arrays.binarySearch(ids, id);
+        return position >= 0 ? Optional.of(products[position]) : Optional.empty();
+    }
+    
+    public boolean contains(Long id) {
+        return id != null && Arrays.binarySearch(ids, id) >= 0;
+    }
+    
+    public Set<String> categories() {
+        return categoryIndex.keySet();
+    }
+    
+    public List<Product> byCategory(String category) {
+        if (category == null) {
+            return List.of();
+        }
+        int[] positions = categoryIndex.get(normalizeCategory(category));
+        return positions != null ? select(positions) : List.of();
+    }
+    
+    public List<Product> topRated() {
+        return select(topRated);
+    }
+    
+    /**
+     * Case-insensitive substring match on name, description and category, like ProductRepository.searchProducts.
+     */
+    public List<Product> search(String query) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<Product> result = new ArrayList<>();
+        for (Product p : products) {
+            if (containsIgnoreCase(p.getName(), needle)
+                || containsIgnoreCase(p.getDescription(), needle)
+                || containsIgnoreCase(p.getCategory(), needle)) {
+                result.add(p);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+    
+    public double priceAt(int position) {
+        return prices[position];
+    }
+    
+    public double ratingAt(int position) {
+        return ratings[position];
+    }
+    
+    public int stockAt(int position) {
+        return stocks[position];
+    }
+    
+    private List<Product> select(int[] positions) {
+        Product[] selected = new Product[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            selected[i] = products[positions[i]];
+        }
+        return Collections.unmodifiableList(Arrays.asList(selected));
+    }
+    
+    private static boolean containsIgnoreCase(String value, String lowerCaseNeedle) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(lowerCaseNeedle);
+    }
+    
+    // MySQL's default collation compares categories case-insensitively and ignores trailing spaces
+    static String normalizeCategory(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    // Detached copy without the lazy associations collection, safe to share across threads and serialize
+    private static Product copyOf(Product source) {
+        Product copy = new Product();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setDescription(source.getDescription());
+        copy.setPrice(source.getPrice());
+        copy.setImageUrl(source.getImageUrl());
+        copy.setCategory(source.getCategory());
+        copy.setStock(source.getStock());
+        copy.setRating(source.getRating());
+        copy.setReviewCount(source.getReviewCount());
+        copy.setRatingSum(source.getRatingSum());
+        copy.setOneStarCount(source.getOneStarCount());
+        copy.setTwoStarCount(source.getTwoStarCount());
+        copy.setThreeStarCount(source.getThreeStarCount());
+        copy.setFourStarCount(source.getFourStarCount());
+        copy.setFiveStarCount(source.getFiveStarCount());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+}
@@ -1,5 +1,7 @@
 package com.shopsphere.service;
 
+import com.shopsphere.config.DataSourceRouting;
+import com.shopsphere.config.DatabaseWorkload;
 import com.shopsphere.model.Product;
 import com.shopsphere.model.ProductAssociation;
 import com.shopsphere.repository.ProductRepository;
@@ -18,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Component
+@DatabaseWorkload(DataSourceRouting.Workload.BATCH)
 public class DataSeederService implements CommandLineRunner {
     
     @Autowired
@@ -1,5 +1,7 @@
 package com.shopsphere.service;
 
+import com.shopsphere.config.DataSourceRouting;
+import com.shopsphere.config.DatabaseWorkload;
 import com.shopsphere.model.Product;
 import com.shopsphere.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +15,7 @@ import java.util.List;
 import java.util.Map;
 
 @Component
+@DatabaseWorkload(DataSourceRouting.Workload.BATCH)
 @Order(3) // Run after DataSeederService and ReviewSeederService
 public class DummyJsonProductSeeder implements CommandLineRunner {
     
@@ -0,0 +1,514 @@
+package com.shopsphere.service;
+
+import com.shopsphere.config.DataSourceRouting;
+import com.shopsphere.config.DatabaseWorkload;
+import com.shopsphere.event.ProductChangeListener;
+import com.shopsphere.exception.InsufficientStockException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Inventory ledger for flash-sale ("hot") SKUs, held in Redis instead of the products row.
+ *
+ * A SKU is hot while its Redis counter exists; there is no other hot-SKU list, so every
+ * node sees a SKU go hot or cold at the same moment. Checkout reserves every line with one
+ * Lua script that decrements the counters of hot lines and leaves the rest to the regular
+ * conditional-UPDATE path, so concurrent checkouts of a hot SKU never queue on the same
+ * MySQL row lock. Lines reserved in the database are then also taken off any counter that
+ * was created after the script routed them (markHot seeds under the row lock, so it either
+ * sees their decrement or its counter gets it). Every hot reservation is added to a
+ * pending-decrement hash, which the scheduler leader drains and applies to products.stock
+ * in batches, holding an exclusive Redis lock so a drained batch is applied exactly once.
+ * While Redis is unavailable checkout is rejected: whether a SKU is hot is only known there.
+ *
+ * All keys share the {inventory:hot} hash tag, so the scripts, which touch several of them,
+ * also run on Redis Cluster.
+ */
+@Service
+public class HotSkuInventoryService {
+    
+    private static final String STOCK_KEY_PREFIX = "{inventory:hot}:stock:";
+    private static final String PENDING_KEY = "{inventory:hot}:pending";
+    private static final String PROCESSING_KEY = "{inventory:hot}:processing";
+    // Held by whoever drains or retires pending decrements; value is the holder's token
+    private static final String RECONCILE_LOCK_KEY = "{inventory:hot}:reconcile-lock";
+    private static final Duration RECONCILE_LOCK_TTL = Duration.ofSeconds(60);
+    private static final Duration RECONCILE_LOCK_WAIT = Duration.ofSeconds(10);
+    
+    // All-or-nothing reservation of the hot lines of one order.
+    // KEYS[1] = pending hash, KEYS[2..n+1] = stock keys, ARGV[1..n] = quantities, ARGV[n+1..2n] = product ids.
+    // Returns {i} if line i (1-based) is hot and out of stock (nothing reserved), otherwise {0, cold lines...}:
+    // the lines without a counter, which the caller reserves in the database.
+    private static final RedisScript<List<Object>> RESERVE_SCRIPT = new DefaultRedisScript<>(
+        "local n = #KEYS - 1 " +
+        "local result = {0} " +
+        "local hot = {} " +
+        "for i = 1, n do " +
+        "  local available = tonumber(redis.call('GET', KEYS[i + 1])) " +
+        "  if available == nil then result[#result + 1] = i " +
+        "  elseif available < tonumber(ARGV[i]) then return {i} " +
+        "  else hot[i] = true end " +
+        "end " +
+        "for i = 1, n do " +
+        "  if hot[i] then " +
+        "    redis.call('DECRBY', KEYS[i + 1], ARGV[i]) " +
+        "    redis.call('HINCRBY', KEYS[1], ARGV[n + i], ARGV[i]) " +
+        "  end " +
+        "end " +
+        "return result", listType());
+    
+    // Takes lines already reserved in the database off counters that exist now, without adding them
+    // to the pending hash. KEYS = stock keys, ARGV = quantities. Returns {i} if line i is out of stock
+    // on its counter (nothing taken), otherwise {0, lines taken...}.
+    private static final RedisScript<List<Object>> COUNT_RESERVED_SCRIPT = new DefaultRedisScript<>(
+        "local result = {0} " +
+        "for i = 1, #KEYS do " +
+        "  local available = tonumber(redis.call('GET', KEYS[i])) " +
+        "  if available ~= nil then " +
+        "    if available < tonumber(ARGV[i]) then return {i} end " +
+        "    result[#result + 1] = i " +
+        "  end " +
+        "end " +
+        "for j = 2, #result do redis.call('DECRBY', KEYS[result[j]], ARGV[result[j]]) end " +
+        "return result", listType());
+    
+    // Undoes a reservation whose order transaction rolled back. KEYS[1] = pending hash, KEYS[2..n+1] =
+    // stock keys, ARGV[1] = '1' to also take the lines out of the pending hash, ARGV[2..n+1] = quantities,
+    // ARGV[n+2..2n+1] = product ids.
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        "local n = #KEYS - 1 " +
+        "for i = 1, n do " +
+        "  if redis.call('EXISTS', KEYS[i + 1]) == 1 then redis.call('INCRBY', KEYS[i + 1], ARGV[i + 1]) end " +
+        "  if ARGV[1] == '1' then redis.call('HINCRBY', KEYS[1], ARGV[n + i + 1], -tonumber(ARGV[i + 1])) end " +
+        "end " +
+        "return 0", Long.class);
+    
+    // Creates a SKU's counter unless it exists: products.stock (ARGV[1]) less the SKU's decrements that
+    // are still waiting in the pending and processing hashes. KEYS[1] = stock key, KEYS[2] = pending hash,
+    // KEYS[3] = processing hash, ARGV[2] = product id. Returns 1 if the counter was created.
+    private static final RedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+        "local waiting = tonumber(redis.call('HGET', KEYS[2], ARGV[2]) or '0') " +
+        "  + tonumber(redis.call('HGET', KEYS[3], ARGV[2]) or '0') " +
+        "redis.call('SET', KEYS[1], tonumber(ARGV[1]) - waiting) " +
+        "return 1", Long.class);
+    
+    // Sets a hot SKU's counter to ARGV[1] and returns the change, or nil if the SKU is not hot.
+    // KEYS[1] = stock key.
+    private static final RedisScript<Long> SET_STOCK_SCRIPT = new DefaultRedisScript<>(
+        "local current = redis.call('GET', KEYS[1]) " +
+        "if not current then return false end " +
+        "redis.call('SET', KEYS[1], ARGV[1]) " +
+        "return tonumber(ARGV[1]) - tonumber(current)", Long.class);
+    
+    // Moves pending decrements to the processing hash and returns them as a flat field/value list.
+    // A processing hash left behind by a failed run is returned as-is so it is retried first.
+    // Only called while holding the reconcile lock. KEYS[1] = pending hash, KEYS[2] = processing hash.
+    private static final RedisScript<List<Object>> DRAIN_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('EXISTS', KEYS[2]) == 0 then " +
+        "  if redis.call('EXISTS', KEYS[1]) == 0 then return {} end " +
+        "  redis.call('RENAME', KEYS[1], KEYS[2]) " +
+        "end " +
+        "return redis.call('HGETALL', KEYS[2])", listType());
+    
+    // Extends the reconcile lock if ARGV[1] still holds it. KEYS[1] = lock, ARGV[2] = TTL in ms.
+    private static final RedisScript<Long> EXTEND_LOCK_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end " +
+        "return 0", Long.class);
+    
+    // Deletes the lock if ARGV[1] still holds it, together with the processing hash when ARGV[2] is '1'.
+    // KEYS[1] = lock, KEYS[2] = processing hash.
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end " +
+        "if ARGV[2] == '1' then redis.call('DEL', KEYS[2]) end " +
+        "redis.call('DEL', KEYS[1]) " +
+        "return 1", Long.class);
+    
+    // Removes a SKU's counter, so checkout reserves it in the database from now on, and takes its
+    // not-yet-applied decrements out of the pending and processing hashes. Only called while holding
+    // the reconcile lock. KEYS[1] = stock key, KEYS[2] = pending hash, KEYS[3] = processing hash, ARGV[1] = product id.
+    private static final RedisScript<Long> RETIRE_SCRIPT = new DefaultRedisScript<>(
+        "redis.call('DEL', KEYS[1]) " +
+        "local pending = tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or '0') " +
+        "  + tonumber(redis.call('HGET', KEYS[3], ARGV[1]) or '0') " +
+        "redis.call('HDEL', KEYS[2], ARGV[1]) " +
+        "redis.call('HDEL', KEYS[3], ARGV[1]) " +
+        "return pending", Long.class);
+    
+    // Not clamped at zero: a negative result means the ledger sold more than there was, see reportOversold
+    private static final String APPLY_PENDING_SQL =
+        "UPDATE products SET stock = stock - ?, updated_at = ? WHERE id = ?";
+    
+    private static final String LOCK_STOCK_SQL = "SELECT stock FROM products WHERE id = ? FOR UPDATE";
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private InventoryService inventoryService;
+    
+    @Autowired
+    private ProductChangeListener productChangeListener;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private SchedulerCoordinator schedulerCoordinator;
+    
+    @Value("${shopsphere.inventory.hot-skus:}")
+    private List<Long> configuredHotSkus;
+    
+    /**
+     * Moves a SKU onto the Redis ledger, seeding the counter from products.stock.
+     * If another node already seeded it, the existing counter is kept. The seed is a
+     * locking read in a read-write transaction, so it comes from the primary, never
+     * from a lagging replica, and waits for in-flight database reservations.
+     */
+    public void markHot(Long productId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Integer> stock = jdbcTemplate.queryForList(LOCK_STOCK_SQL, Integer.class, productId);
+            if (stock.isEmpty()) {
+                throw new RuntimeException("Product not found");
+            }
+            Integer available = stock.get(0);
+            redisTemplate.execute(SEED_SCRIPT, List.of(STOCK_KEY_PREFIX + productId, PENDING_KEY, PROCESSING_KEY),
+                String.valueOf(available != null ? available : 0), productId.toString());
+        });
+    }
+    
+    /**
+     * Returns a SKU to the database path. Its counter is retired and its pending decrements are
+     * applied in one transaction that holds the product row lock, so database reservations routed
+     * there by the missing counter wait for the flushed stock.
+     */
+    public void unmarkHot(Long productId) {
+        String token = acquireReconcileLock(RECONCILE_LOCK_WAIT);
+        if (token == null) {
+            throw new RuntimeException("Hot SKU reconciliation is in progress, please retry");
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList(LOCK_STOCK_SQL, productId);
+                Long pending = redisTemplate.execute(RETIRE_SCRIPT,
+                    List.of(STOCK_KEY_PREFIX + productId, PENDING_KEY, PROCESSING_KEY), productId.toString());
+                if (pending != null && pending != 0) {
+                    try {
+                        jdbcTemplate.update(APPLY_PENDING_SQL, pending, Timestamp.valueOf(LocalDateTime.now()), productId);
+                        reportOversold(List.of(productId));
+                    } catch (RuntimeException e) {
+                        // Put the decrements back for the next reconcile run
+                        redisTemplate.opsForHash().increment(PENDING_KEY, productId.toString(), pending);
+                        throw e;
+                    }
+                }
+                productChangeListener.productsChanged(Set.of(productId));
+            });
+        } finally {
+            releaseReconcileLock(token, false);
+        }
+    }
+    
+    /**
+     * Sets a product's available stock (admin edit). For a hot SKU checkout reserves against the
+     * counter, so the counter is set and the same difference is added to products.stock, which
+     * keeps the decrements still pending valid. Otherwise products.stock is set directly. Runs
+     * under the product row lock, like markHot and unmarkHot.
+     */
+    public void setStock(Long productId, int stock) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (jdbcTemplate.queryForList(LOCK_STOCK_SQL, productId).isEmpty()) {
+                throw new RuntimeException("Product not found");
+            }
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            Long change = redisTemplate.execute(SET_STOCK_SCRIPT, List.of(STOCK_KEY_PREFIX + productId), String.valueOf(stock));
+            if (change == null) {
+                jdbcTemplate.update("UPDATE products SET stock = ?, updated_at = ? WHERE id = ?", stock, now, productId);
+            } else {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            redisTemplate.opsForValue().decrement(STOCK_KEY_PREFIX + productId, change);
+                        }
+                    }
+                });
+                jdbcTemplate.update("UPDATE products SET stock = stock + ?, updated_at = ? WHERE id = ?", change, now, productId);
+            }
+            productChangeListener.productsChanged(Set.of(productId));
+        });
+    }
+    
+    /**
+     * Puts the SKUs from shopsphere.inventory.hot-skus on the ledger once the application is
+     * up, each in its own transaction.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadConfiguredHotSkus() {
+        if (configuredHotSkus == null) {
+            return;
+        }
+        for (Long productId : configuredHotSkus) {
+            try {
+                markHot(productId);
+            } catch (Exception e) {
+                System.err.println("Could not put product " + productId + " on the hot SKU ledger: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Reserves stock for all lines of an order (product id -> quantity). Lines with a Redis
+     * counter are reserved there, everything else with InventoryService's conditional UPDATE.
+     * Must run inside the order transaction; a rollback releases the Redis reservation again.
+     */
+    public void reserveStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = new ArrayList<>(new TreeMap<>(quantities).keySet());
+        List<Object> reserved = runLedgerScript(RESERVE_SCRIPT, withPendingKey(stockKeys(productIds)), reserveArgs(productIds, quantities));
+        if (outOfStockLine(reserved) > 0) {
+            throw new InsufficientStockException(productIds.get(outOfStockLine(reserved) - 1));
+        }
+        
+        List<Long> coldIds = lines(reserved, productIds);
+        List<Long> hotIds = new ArrayList<>(productIds);
+        hotIds.removeAll(coldIds);
+        if (!hotIds.isEmpty()) {
+            releaseOnRollback(hotIds, quantities, true);
+        }
+        if (coldIds.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, Integer> coldLines = new TreeMap<>();
+        coldIds.forEach(productId -> coldLines.put(productId, quantities.get(productId)));
+        inventoryService.reserveStock(coldLines);
+        
+        // The rows are locked now, so no counter can be seeded for them until this order commits;
+        // one seeded since the reserve script ran did not see these decrements and takes them here
+        List<Object> counted = runLedgerScript(COUNT_RESERVED_SCRIPT, stockKeys(coldIds), quantityArgs(coldIds, quantities));
+        if (outOfStockLine(counted) > 0) {
+            throw new InsufficientStockException(coldIds.get(outOfStockLine(counted) - 1));
+        }
+        List<Long> countedIds = lines(counted, coldIds);
+        if (!countedIds.isEmpty()) {
+            releaseOnRollback(countedIds, quantities, false);
+        }
+    }
+    
+    private List<Object> runLedgerScript(RedisScript<List<Object>> script, List<String> keys, Object[] args) {
+        try {
+            List<Object> result = redisTemplate.execute(script, keys, args);
+            if (result == null || result.isEmpty()) {
+                throw new IllegalStateException("empty script reply");
+            }
+            return result;
+        } catch (RuntimeException e) {
+            // Fail closed: without the ledger a database reservation could oversell a hot SKU
+            System.err.println("Hot SKU ledger unavailable, rejecting order: " + e.getMessage());
+            throw new RuntimeException("Stock is temporarily unavailable, please retry");
+        }
+    }
+    
+    private void releaseOnRollback(List<Long> productIds, Map<Long, Integer> quantities, boolean pending) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    List<Object> args = new ArrayList<>();
+                    args.add(pending ? "1" : "0");
+                    args.addAll(List.of(reserveArgs(productIds, quantities)));
+                    redisTemplate.execute(RELEASE_SCRIPT, withPendingKey(stockKeys(productIds)), args.toArray());
+                }
+            }
+        });
+    }
+    
+    /**
+     * Applies pending hot-SKU decrements to products.stock in one JDBC batch. Runs on the
+     * scheduler leader only, and only while holding the reconcile lock, so two runs (a leader
+     * handover, or unmarkHot) can never apply the same batch twice. The lock is re-checked
+     * inside the database transaction; if it was lost, the batch rolls back and stays queued.
+     */
+    @Scheduled(fixedDelay = 5000)
+    @DatabaseWorkload(DataSourceRouting.Workload.BATCH)
+    public void reconcile() {
+        if (!schedulerCoordinator.isLeader()) {
+            return;
+        }
+        String token;
+        try {
+            token = acquireReconcileLock(Duration.ZERO);
+        } catch (Exception e) {
+            System.err.println("Hot SKU reconciliation failed, will retry: " + e.getMessage());
+            return;
+        }
+        if (token == null) {
+            return;
+        }
+        boolean applied = false;
+        try {
+            List<Object> drained = redisTemplate.execute(DRAIN_SCRIPT, List.of(PENDING_KEY, PROCESSING_KEY));
+            Map<Long, Integer> decrements = new TreeMap<>();
+            if (drained != null) {
+                for (int i = 0; i + 1 < drained.size(); i += 2) {
+                    int quantity = Integer.parseInt(drained.get(i + 1).toString());
+                    if (quantity != 0) {
+                        decrements.put(Long.valueOf(drained.get(i).toString()), quantity);
+                    }
+                }
+            }
+            
+            if (!decrements.isEmpty()) {
+                List<Map.Entry<Long, Integer>> lines = new ArrayList<>(decrements.entrySet());
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(APPLY_PENDING_SQL, lines, lines.size(), (ps, line) -> {
+                        ps.setInt(1, line.getValue());
+                        ps.setTimestamp(2, now);
+                        ps.setLong(3, line.getKey());
+                    });
+                    reportOversold(decrements.keySet());
+                    if (!extendReconcileLock(token)) {
+                        throw new IllegalStateException("reconcile lock lost before commit");
+                    }
+                    productChangeListener.productsChanged(decrements.keySet());
+                });
+            }
+            applied = true;
+        } catch (Exception e) {
+            System.err.println("Hot SKU reconciliation failed, will retry: " + e.getMessage());
+        } finally {
+            // The processing hash is only cleared once the database has its decrements
+            try {
+                releaseReconcileLock(token, applied);
+            } catch (Exception e) {
+                System.err.println("Could not release hot SKU reconcile lock: " + e.getMessage());
+            }
+        }
+    }
+    
+    // Token of the acquired lock, or null if another holder kept it for the whole wait
+    private String acquireReconcileLock(Duration wait) {
+        String token = UUID.randomUUID().toString();
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (true) {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(RECONCILE_LOCK_KEY, token, RECONCILE_LOCK_TTL))) {
+                return token;
+            }
+            if (System.nanoTime() >= deadline) {
+                return null;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+    
+    private boolean extendReconcileLock(String token) {
+        Long extended = redisTemplate.execute(EXTEND_LOCK_SCRIPT, List.of(RECONCILE_LOCK_KEY),
+            token, String.valueOf(RECONCILE_LOCK_TTL.toMillis()));
+        return extended != null && extended == 1;
+    }
+    
+    private void releaseReconcileLock(String token, boolean clearProcessing) {
+        redisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(RECONCILE_LOCK_KEY, PROCESSING_KEY),
+            token, clearProcessing ? "1" : "0");
+    }
+    
+    /**
+     * Logs products whose stock went negative when hot-SKU decrements were applied. The
+     * ledger never reserves more than its counter, so this means the counter and
+     * products.stock disagreed; the stock is left negative so the difference stays visible.
+     */
+    private void reportOversold(Collection<Long> productIds) {
+        String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+        jdbcTemplate.query("SELECT id, stock FROM products WHERE stock < 0 AND id IN (" + placeholders + ")",
+            rs -> {
+                System.err.println("⚠️ Hot SKU ledger oversold product " + rs.getLong("id") + ": stock is " + rs.getInt("stock"));
+            },
+            productIds.toArray());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Class<List<Object>> listType() {
+        return (Class<List<Object>>) (Class<?>) List.class;
+    }
+    
+    // First element of a reserve/count reply: the out-of-stock line, or 0
+    private static int outOfStockLine(List<Object> reply) {
+        return ((Number) reply.get(0)).intValue();
+    }
+    
+    // Product ids of the 1-based line numbers after the first element of a reserve/count reply
+    private static List<Long> lines(List<Object> reply, List<Long> productIds) {
+        List<Long> ids = new ArrayList<>(reply.size() - 1);
+        for (int i = 1; i < reply.size(); i++) {
+            ids.add(productIds.get(((Number) reply.get(i)).intValue() - 1));
+        }
+        return ids;
+    }
+    
+    private static List<String> stockKeys(List<Long> productIds) {
+        List<String> keys = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            keys.add(STOCK_KEY_PREFIX + productId);
+        }
+        return keys;
+    }
+    
+    private static List<String> withPendingKey(List<String> stockKeys) {
+        List<String> keys = new ArrayList<>(stockKeys.size() + 1);
+        keys.add(PENDING_KEY);
+        keys.addAll(stockKeys);
+        return keys;
+    }
+    
+    private static Object[] quantityArgs(List<Long> productIds, Map<Long, Integer> quantities) {
+        List<String> args = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            args.add(quantities.get(productId).toString());
+        }
+        return args.toArray();
+    }
+    
+    // Quantities followed by product ids
+    private static Object[] reserveArgs(List<Long> productIds, Map<Long, Integer> quantities) {
+        List<Object> args = new ArrayList<>(List.of(quantityArgs(productIds, quantities)));
+        for (Long productId : productIds) {
+            args.add(productId.toString());
+        }
+        return args.toArray();
+    }
+}
@@ -0,0 +1,209 @@
+package com.shopsphere.service;
+
+import com.shopsphere.config.DataSourceRouting;
+import com.shopsphere.config.DatabaseWorkload;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopsphere.model.IdempotencyRecord;
+import com.shopsphere.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key and replays the stored response for
+ * duplicates.
+ * 
+ * Redis is the fast path: the first request claims the key with a short-lived marker and
+ * replaces it with the response once the work commits. The response is also written to
+ * idempotency_records in the same transaction as the work, so a duplicate that slips past
+ * Redis (flushed, evicted or down) is caught by the primary key and rolled back. Both
+ * store the key as its SHA-256, so a caller-scoped key of any length fits the column.
+ */
+@Service
+public class IdempotencyService {
+    
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    private static final Duration IN_PROGRESS_TTL = Duration.ofMinutes(1);
+    private static final Duration RESPONSE_TTL = Duration.ofHours(24);
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private SchedulerCoordinator schedulerCoordinator;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    public IdempotencyService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    public record Result(int status, String body, boolean replayed) {
+    }
+    
+    private record StoredResponse(String state, String requestHash, int status, String body) {
+    }
+    
+    /**
+     * Execute the action unless this key was already used. The action's return value is
+     * serialized to JSON and becomes the stored response; exceptions are rethrown and
+     * release the key so the client can retry.
+     */
+    public Result execute(String idempotencyKey, Object request, Supplier<Object> action) {
+        String requestHash = sha256(toJson(request));
+        String key = sha256(idempotencyKey);
+        String redisKey = KEY_PREFIX + key;
+        
+        Boolean claimed = claim(redisKey, requestHash);
+        if (Boolean.FALSE.equals(claimed)) {
+            StoredResponse stored = readCached(redisKey);
+            if (stored == null || IN_PROGRESS.equals(stored.state())) {
+                return error(409, "A request with this Idempotency-Key is already being processed");
+            }
+            return replay(stored, requestHash);
+        }
+        
+        try {
+            // Claimed in Redis, or Redis is unavailable: the database has the final word
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(key);
+            if (existing.isPresent()) {
+                StoredResponse stored = toStored(existing.get());
+                cache(redisKey, stored);
+                return replay(stored, requestHash);
+            }
+            
+            StoredResponse response = transactionTemplate.execute(status -> {
+                String body = toJson(action.get());
+                IdempotencyRecord record = new IdempotencyRecord();
+                record.setIdempotencyKey(key);
+                record.setRequestHash(requestHash);
+                record.setResponseStatus(200);
+                record.setResponseBody(body);
+                idempotencyRecordRepository.saveAndFlush(record);
+                return toStored(record);
+            });
+            cache(redisKey, response);
+            return new Result(response.status(), response.body(), false);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent duplicate committed first; our transaction rolled back
+            Optional<IdempotencyRecord> winner = idempotencyRecordRepository.findById(key);
+            if (winner.isEmpty()) {
+                // The violation came from the work itself, not the key: let the client retry
+                release(redisKey);
+                throw e;
+            }
+            StoredResponse stored = toStored(winner.get());
+            cache(redisKey, stored);
+            return replay(stored, requestHash);
+        } catch (RuntimeException e) {
+            release(redisKey);
+            throw e;
+        }
+    }
+    
+    @Scheduled(cron = "0 15 * * * *")
+    @DatabaseWorkload(DataSourceRouting.Workload.BATCH)
+    public void purgeExpired() {
+        if (!schedulerCoordinator.isLeader()) {
+            return;
+        }
+        Integer deleted = transactionTemplate.execute(status ->
+            idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(RESPONSE_TTL)));
+        if (deleted != null && deleted > 0) {
+            System.out.println("🧹 Purged " + deleted + " expired idempotency records");
+        }
+    }
+    
+    private Boolean claim(String redisKey, String requestHash) {
+        try {
+            return redisTemplate.opsForValue().setIfAbsent(redisKey,
+                toJson(new StoredResponse(IN_PROGRESS, requestHash, 0, null)), IN_PROGRESS_TTL);
+        } catch (Exception e) {
+            System.err.println("⚠️ Redis unavailable for idempotency check, using database: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private StoredResponse readCached(String redisKey) {
+        try {
+            String value = redisTemplate.opsForValue().get(redisKey);
+            return value != null ? objectMapper.readValue(value, StoredResponse.class) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    private void cache(String redisKey, StoredResponse response) {
+        try {
+            redisTemplate.opsForValue().set(redisKey, toJson(response), RESPONSE_TTL);
+        } catch (Exception e) {
+            // The database record still guards duplicates
+            System.err.println("⚠️ Could not cache idempotent response: " + e.getMessage());
+        }
+    }
+    
+    private void release(String redisKey) {
+        try {
+            redisTemplate.delete(redisKey);
+        } catch (Exception e) {
+            // Marker expires on its own after IN_PROGRESS_TTL
+        }
+    }
+    
+    private Result replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            return error(422, "Idempotency-Key was already used with a different request");
+        }
+        return new Result(stored.status(), stored.body(), true);
+    }
+    
+    private Result error(int status, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return new Result(status, toJson(error), false);
+    }
+    
+    private StoredResponse toStored(IdempotencyRecord record) {
+        return new StoredResponse("COMPLETED", record.getRequestHash(), record.getResponseStatus(), record.getResponseBody());
+    }
+    
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotent response", e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.shopsphere.service;
+
+import com.shopsphere.event.ProductChangeListener;
+import com.shopsphere.exception.InsufficientStockException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reserves product stock for checkout without read-check-write races.
+ *
+ * Each line is a single conditional UPDATE that only succeeds while enough stock is left,
+ * so concurrent checkouts can never oversell and no row is locked before its update.
+ * All lines go to the database as one JDBC batch, ordered by product id so two orders
+ * sharing products always lock rows in the same order and cannot deadlock.
+ */
+@Service
+public class InventoryService {
+    
+    private static final String RESERVE_SQL =
+        "UPDATE products SET stock = stock - ?, updated_at = ? WHERE id = ? AND stock >= ?";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ProductChangeListener productChangeListener;
+    
+    /**
+     * Decrements stock for every product in the map (product id -> quantity).
+     * Must run inside the caller's transaction: if any line cannot be satisfied an
+     * InsufficientStockException is thrown and the whole order, including the other
+     * decrements, is rolled back.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserveStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        
+        int[][] counts = jdbcTemplate.batchUpdate(RESERVE_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, line.getKey());
+            ps.setInt(4, line.getValue());
+        });
+        
+        int[] results = counts.length > 0 ? counts[0] : new int[0];
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == 0) {
+                throw new InsufficientStockException(lines.get(i).getKey());
+            }
+        }
+        
+        // These writes bypass Hibernate, so tell the cache/snapshot listener explicitly
+        productChangeListener.productsChanged(quantities.keySet());
+    }
+}
@@ -0,0 +1,48 @@
+package com.shopsphere.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Leases stored as rows in scheduler_leases. Expiry is judged by the database clock, so
+ * clock drift between instances does not matter.
+ */
+@Service
+@ConditionalOnProperty(name = "shopsphere.scheduling.lease-store", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcLeaseManager implements LeaseManager {
+    
+    // MySQL applies the assignments left to right: once owner is taken over, the expiry
+    // condition sees the new owner and extends the lease too
+    private static final String ACQUIRE_SQL =
+        "INSERT INTO scheduler_leases (name, owner, expires_at) VALUES (?, ?, DATE_ADD(NOW(3), INTERVAL ? MICROSECOND)) " +
+        "ON DUPLICATE KEY UPDATE " +
+        "owner = IF(owner = VALUES(owner) OR expires_at < NOW(3), VALUES(owner), owner), " +
+        "expires_at = IF(owner = VALUES(owner), VALUES(expires_at), expires_at)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public boolean tryAcquire(String name, String owner, Duration ttl) {
+        jdbcTemplate.update(ACQUIRE_SQL, name, owner, ttl.toMillis() * 1000);
+        List<String> holder = jdbcTemplate.queryForList("SELECT owner FROM scheduler_leases WHERE name = ?", String.class, name);
+        return !holder.isEmpty() && owner.equals(holder.get(0));
+    }
+    
+    @Override
+    public void release(String name, String owner) {
+        jdbcTemplate.update("DELETE FROM scheduler_leases WHERE name = ? AND owner = ?", name, owner);
+    }
+    
+    @Override
+    public int countActive(String prefix) {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM scheduler_leases WHERE name LIKE ? AND expires_at > NOW(3)", Integer.class, prefix + "%");
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,19 @@
+package com.shopsphere.service;
+
+import java.time.Duration;
+
+/**
+ * Named, expiring locks shared by all backend instances. A lease is held by one owner
+ * until it is released or its time-to-live passes without renewal.
+ */
+public interface LeaseManager {
+    
+    /** Acquire the lease, or renew it if owner already holds it. Returns whether owner holds it now. */
+    boolean tryAcquire(String name, String owner, Duration ttl);
+    
+    /** Give the lease up early; a no-op unless owner holds it. */
+    void release(String name, String owner);
+    
+    /** Number of unexpired leases whose name starts with prefix. */
+    int countActive(String prefix);
+}
@@ -0,0 +1,44 @@
+package com.shopsphere.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process leases for single-node runs and tests (shopsphere.scheduling.lease-store=local).
+ */
+@Service
+@ConditionalOnProperty(name = "shopsphere.scheduling.lease-store", havingValue = "local")
+public class LocalLeaseManager implements LeaseManager {
+    
+    private record Lease(String owner, long expiresAtMillis) {
+    }
+    
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    
+    @Override
+    public boolean tryAcquire(String name, String owner, Duration ttl) {
+        long now = System.currentTimeMillis();
+        Lease lease = leases.compute(name, (key, current) ->
+            current == null || current.owner().equals(owner) || current.expiresAtMillis() < now
+                ? new Lease(owner, now + ttl.toMillis())
+                : current);
+        return lease.owner().equals(owner);
+    }
+    
+    @Override
+    public void release(String name, String owner) {
+        leases.computeIfPresent(name, (key, current) -> current.owner().equals(owner) ? null : current);
+    }
+    
+    @Override
+    public int countActive(String prefix) {
+        long now = System.currentTimeMillis();
+        return (int) leases.entrySet().stream()
+            .filter(entry -> entry.getKey().startsWith(prefix) && entry.getValue().expiresAtMillis() >= now)
+            .count();
+    }
+}
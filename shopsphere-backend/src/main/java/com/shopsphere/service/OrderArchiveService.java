@@ -0,0 +1,101 @@
+package com.shopsphere.service;
+
+import com.shopsphere.config.DataSourceRouting;
+import com.shopsphere.config.DatabaseWorkload;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves delivered and cancelled orders older than shopsphere.archive.order-age-days, with
+ * their items and status history, from the hot tables to the *_archive tables. Each chunk
+ * of orders is copied and deleted in its own short transaction so the hot tables are
+ * never locked for long; only the scheduler leader archives. Archived orders are read
+ * through OrderArchiveRepository, and only where a caller asks for them.
+ */
+@Service
+@DatabaseWorkload(DataSourceRouting.Workload.BATCH)
+public class OrderArchiveService {
+    
+    private static final String ORDER_COLUMNS = "id, user_id, total_amount, status, shipping_address, payment_method, "
+        + "created_at, updated_at, pending_date, confirmed_date, picked_up_date, in_transit_date, "
+        + "out_for_delivery_date, delivered_date";
+    private static final String ITEM_COLUMNS = "id, order_id, product_id, quantity, price";
+    private static final String HISTORY_COLUMNS = "id, order_id, status, status_date, description";
+    
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    
+    @Autowired
+    private SchedulerCoordinator schedulerCoordinator;
+    
+    @Value("${shopsphere.archive.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${shopsphere.archive.order-age-days:180}")
+    private int orderAgeDays;
+    
+    @Value("${shopsphere.archive.batch-size:500}")
+    private int batchSize;
+    
+    // Caps one night's run; the remainder is picked up the next night
+    @Value("${shopsphere.archive.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    public OrderArchiveService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Scheduled(cron = "${shopsphere.archive.cron:0 0 4 * * *}")
+    public void archiveColdOrders() {
+        if (!enabled || !schedulerCoordinator.isLeader()) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(orderAgeDays);
+        int archived = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            archived += moved != null ? moved : 0;
+            if (moved == null || moved < batchSize) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            System.out.println("✅ Archived " + archived + " orders created before " + cutoff);
+        }
+    }
+    
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = namedJdbcTemplate.queryForList(
+            "SELECT id FROM orders WHERE status IN ('DELIVERED', 'CANCELLED') AND created_at < :cutoff " +
+            "ORDER BY id LIMIT :limit FOR UPDATE",
+            new MapSqlParameterSource().addValue("cutoff", cutoff).addValue("limit", batchSize), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        namedJdbcTemplate.update("INSERT INTO orders_archive (" + ORDER_COLUMNS + ", archived_at) " +
+            "SELECT " + ORDER_COLUMNS + ", NOW(6) FROM orders WHERE id IN (:ids)", params);
+        namedJdbcTemplate.update("INSERT INTO order_items_archive (" + ITEM_COLUMNS + ") " +
+            "SELECT " + ITEM_COLUMNS + " FROM order_items WHERE order_id IN (:ids)", params);
+        namedJdbcTemplate.update("INSERT INTO order_status_history_archive (" + HISTORY_COLUMNS + ") " +
+            "SELECT " + HISTORY_COLUMNS + " FROM order_status_history WHERE order_id IN (:ids)", params);
+        
+        // Children first for the foreign keys
+        namedJdbcTemplate.update("DELETE FROM order_status_history WHERE order_id IN (:ids)", params);
+        namedJdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (:ids)", params);
+        namedJdbcTemplate.update("DELETE FROM orders WHERE id IN (:ids)", params);
+        return ids.size();
+    }
+}
@@ -0,0 +1,81 @@
+package com.shopsphere.service;
+
+import com.shopsphere.model.Order;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Automatic order progression: which status follows which, and how many minutes after
+ * the order was placed each status is reached (minutes rather than days for demo/testing).
+ */
+public final class OrderLifecycle {
+    
+    private static final Map<Order.OrderStatus, Order.OrderStatus> NEXT_STATUS = new EnumMap<>(Order.OrderStatus.class);
+    private static final Map<Order.OrderStatus, Integer> MINUTES_AFTER_ORDER = new EnumMap<>(Order.OrderStatus.class);
+    private static final Map<Order.OrderStatus, String> DATE_COLUMN = new EnumMap<>(Order.OrderStatus.class);
+    
+    static {
+        NEXT_STATUS.put(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED);
+        NEXT_STATUS.put(Order.OrderStatus.CONFIRMED, Order.OrderStatus.PICKED_UP);
+        NEXT_STATUS.put(Order.OrderStatus.PICKED_UP, Order.OrderStatus.IN_TRANSIT);
+        NEXT_STATUS.put(Order.OrderStatus.IN_TRANSIT, Order.OrderStatus.OUT_FOR_DELIVERY);
+        NEXT_STATUS.put(Order.OrderStatus.OUT_FOR_DELIVERY, Order.OrderStatus.DELIVERED);
+        
+        MINUTES_AFTER_ORDER.put(Order.OrderStatus.CONFIRMED, 2);
+        MINUTES_AFTER_ORDER.put(Order.OrderStatus.PICKED_UP, 5);
+        MINUTES_AFTER_ORDER.put(Order.OrderStatus.IN_TRANSIT, 10);
+        MINUTES_AFTER_ORDER.put(Order.OrderStatus.OUT_FOR_DELIVERY, 15);
+        MINUTES_AFTER_ORDER.put(Order.OrderStatus.DELIVERED, 20);
+        
+        DATE_COLUMN.put(Order.OrderStatus.PENDING, "pending_date");
+        DATE_COLUMN.put(Order.OrderStatus.CONFIRMED, "confirmed_date");
+        DATE_COLUMN.put(Order.OrderStatus.PICKED_UP, "picked_up_date");
+        DATE_COLUMN.put(Order.OrderStatus.IN_TRANSIT, "in_transit_date");
+        DATE_COLUMN.put(Order.OrderStatus.OUT_FOR_DELIVERY, "out_for_delivery_date");
+        DATE_COLUMN.put(Order.OrderStatus.DELIVERED, "delivered_date");
+    }
+    
+    private OrderLifecycle() {
+    }
+    
+    /** Status the order moves to automatically, or null for DELIVERED and CANCELLED. */
+    public static Order.OrderStatus nextStatus(Order.OrderStatus status) {
+        return NEXT_STATUS.get(status);
+    }
+    
+    /** Minutes after the order was placed at which the automatic step out of this status is due, or null. */
+    public static Integer minutesUntilNextTransition(Order.OrderStatus status) {
+        Order.OrderStatus next = nextStatus(status);
+        return next != null ? MINUTES_AFTER_ORDER.get(next) : null;
+    }
+    
+    /** When an order placed at createdAt and currently in status is due to move on, or null. */
+    public static LocalDateTime nextTransitionAt(LocalDateTime createdAt, Order.OrderStatus status) {
+        Integer minutes = minutesUntilNextTransition(status);
+        return minutes != null && createdAt != null ? createdAt.plusMinutes(minutes) : null;
+    }
+    
+    /** Column on "orders" that records when the status was reached, or null for CANCELLED. */
+    public static String dateColumn(Order.OrderStatus status) {
+        return DATE_COLUMN.get(status);
+    }
+    
+    public static String description(Order.OrderStatus status) {
+        switch (status) {
+            case CONFIRMED:
+                return "Order confirmed by seller";
+            case PICKED_UP:
+                return "Item picked up from seller";
+            case IN_TRANSIT:
+                return "Item in transit to your city";
+            case OUT_FOR_DELIVERY:
+                return "Out for delivery";
+            case DELIVERED:
+                return "Order delivered successfully";
+            default:
+                return "";
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.shopsphere.service;
+
+import com.shopsphere.event.OrderPlacedEvent;
+import com.shopsphere.event.OutboxEventHandler;
+import com.shopsphere.model.User;
+import com.shopsphere.repository.CartRepository;
+import com.shopsphere.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Post-checkout work that used to run inside the order request: remembering the shipping
+ * details on the user profile, clearing the ordered products from the cart and refreshing recommendations.
+ * Every step is idempotent, so redelivery after a failure is harmless.
+ */
+@Component
+public class OrderPlacedHandler implements OutboxEventHandler<OrderPlacedEvent> {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private CartRepository cartRepository;
+    
+    @Autowired
+    private RecommendationService recommendationService;
+    
+    @Override
+    public String eventType() {
+        return OrderPlacedEvent.TYPE;
+    }
+    
+    @Override
+    public Class<OrderPlacedEvent> payloadType() {
+        return OrderPlacedEvent.class;
+    }
+    
+    @Override
+    public void handle(OrderPlacedEvent event) {
+        User user = userRepository.findById(event.userId()).orElse(null);
+        if (user != null) {
+            applyShippingDetails(user, event);
+            userRepository.save(user);
+        }
+        
+        // Clear the ordered products from the cart. Not the whole cart: a redelivery may come
+        // after the user has started filling it again.
+        if (!event.productIds().isEmpty()) {
+            cartRepository.deleteByUserIdAndProductIdIn(event.userId(), event.productIds());
+        }
+        
+        // Refresh ML recommendation models with new order data; rebuilds are coalesced
+        recommendationService.evictCache();
+        recommendationService.markModelsStale();
+        
+        System.out.println("📦 Post-checkout processing done for order " + event.orderId());
+    }
+    
+    private void applyShippingDetails(User user, OrderPlacedEvent event) {
+        // Save shipping address to user profile for future use
+        String shippingAddress = event.shippingAddress();
+        if (shippingAddress != null && !shippingAddress.isEmpty()) {
+            // Parse shipping address (format: "address, city, zipCode, country")
+            String[] addressParts = shippingAddress.split(",");
+            if (addressParts.length >= 4) {
+                user.setAddress(addressParts[0].trim());
+                user.setCity(addressParts[1].trim());
+                user.setZipCode(addressParts[2].trim());
+                user.setCountry(addressParts[3].trim());
+            } else if (addressParts.length >= 1) {
+                user.setAddress(shippingAddress);
+            }
+        }
+        
+        // Save phone if provided in order data
+        if (event.phone() != null) {
+            user.setPhone(event.phone());
+        }
+        
+        // Save address fields if provided separately
+        if (event.city() != null) {
+            user.setCity(event.city());
+        }
+        if (event.zipCode() != null) {
+            user.setZipCode(event.zipCode());
+        }
+        if (event.country() != null) {
+            user.setCountry(event.country());
+        }
+    }
+}
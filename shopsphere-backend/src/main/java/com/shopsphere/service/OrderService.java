@@ -1,14 +1,25 @@
 package com.shopsphere.service;
 
+import com.shopsphere.dto.CreateOrderRequest;
+import com.shopsphere.dto.OrderQuote;
+import com.shopsphere.event.OrderPlacedEvent;
+import com.shopsphere.exception.InsufficientStockException;
 import com.shopsphere.model.*;
 import com.shopsphere.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class OrderService {
@@ -23,122 +34,98 @@ public class OrderService {
     private ProductRepository productRepository;
     
     @Autowired
-    private CartRepository cartRepository;
+    private CatalogueService catalogueService;
     
     @Autowired
-    private RecommendationService recommendationService;
+    private OutboxService outboxService;
+    
+    @Autowired
+    private OrderTransitionScheduler orderTransitionScheduler;
+    
+    @Autowired
+    private HotSkuInventoryService hotSkuInventoryService;
+    
+    @Autowired
+    private ReadYourWritesService readYourWritesService;
+    
+    // Flat fee added to every order's total
+    @Value("${shopsphere.orders.shipping-fee:10.00}")
+    private BigDecimal shippingFee;
     
     @Transactional
-    public Order createOrder(Map<String, Object> orderData) {
+    public Order createOrder(CreateOrderRequest request) {
         try {
-            System.out.println("OrderService: Creating order with data: " + orderData);
-            
-            if (orderData.get("userId") == null) {
-                throw new RuntimeException("User ID is required");
-            }
+            System.out.println("OrderService: Creating order for user " + request.userId() + " with " + request.items().size() + " items");
             
-            Long userId = Long.valueOf(orderData.get("userId").toString());
+            Long userId = request.userId();
             User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
             
-            if (orderData.get("items") == null) {
-                throw new RuntimeException("Order items are required");
-            }
-            
             Order order = new Order();
             order.setUser(user);
-            order.setTotalAmount(new BigDecimal(orderData.get("totalAmount").toString()));
-            order.setShippingAddress(orderData.get("shippingAddress").toString());
-            order.setPaymentMethod(orderData.get("paymentMethod").toString());
+            order.setShippingAddress(request.shippingAddress());
+            order.setPaymentMethod(request.paymentMethod());
             order.updateStatus(Order.OrderStatus.PENDING);
+            order.setNextTransitionAt(OrderLifecycle.nextTransitionAt(LocalDateTime.now(), Order.OrderStatus.PENDING));
             
-            List<OrderItem> orderItems = new ArrayList<>();
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> items = (List<Map<String, Object>>) orderData.get("items");
-            
-            if (items == null || items.isEmpty()) {
-                throw new RuntimeException("Order must contain at least one item");
-            }
+            Map<Long, Product> productsById = resolveProducts(request.items());
             
-            for (Map<String, Object> itemData : items) {
-                if (itemData.get("productId") == null) {
-                    throw new RuntimeException("Product ID is required for all items");
+            // Line prices and the total come from the catalogue, never from the client
+            List<OrderItem> orderItems = new ArrayList<>();
+            Map<Long, Integer> quantitiesByProduct = new HashMap<>();
+            BigDecimal totalAmount = BigDecimal.ZERO;
+            for (CreateOrderRequest.Line line : request.items()) {
+                Product product = productsById.get(line.productId());
+                if (product == null) {
+                    throw new RuntimeException("Product not found with ID: " + line.productId());
                 }
-                
-                Long productId = Long.valueOf(itemData.get("productId").toString());
-                Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
-                
-                Integer quantity = Integer.valueOf(itemData.get("quantity").toString());
-                if (product.getStock() < quantity) {
-                    throw new RuntimeException("Insufficient stock for product: " + product.getName());
+                if (product.getPrice() == null) {
+                    throw new RuntimeException("Product is not available for sale: " + product.getName());
                 }
                 
                 OrderItem orderItem = new OrderItem();
                 orderItem.setOrder(order);
                 orderItem.setProduct(product);
-                orderItem.setQuantity(quantity);
-                orderItem.setPrice(new BigDecimal(itemData.get("price").toString()));
+                orderItem.setQuantity(line.quantity());
+                orderItem.setPrice(product.getPrice());
                 
                 orderItems.add(orderItem);
-                
-                // Update product stock
-                product.setStock(product.getStock() - quantity);
-                productRepository.save(product);
+                quantitiesByProduct.merge(product.getId(), line.quantity(), Integer::sum);
+                totalAmount = totalAmount.add(product.getPrice().multiply(BigDecimal.valueOf(line.quantity())));
             }
             
             order.setOrderItems(orderItems);
-            // Use saveAndFlush to ensure order is immediately committed to database
+            order.setTotalAmount(priced(totalAmount).totalAmount());
+            // The flush writes the order and all of its items as JDBC batches
             Order savedOrder = orderRepository.saveAndFlush(order);
             System.out.println("OrderService: Order saved with ID: " + savedOrder.getId());
-            System.out.println("OrderService: Order user ID: " + savedOrder.getUser().getId());
-            System.out.println("OrderService: Order user ID type: " + savedOrder.getUser().getId().getClass());
-            System.out.println("OrderService: Order items count: " + (savedOrder.getOrderItems() != null ? savedOrder.getOrderItems().size() : 0));
+            System.out.println("OrderService: Order items count: " + orderItems.size());
             System.out.println("OrderService: Order total amount: " + savedOrder.getTotalAmount());
-            System.out.println("OrderService: Order flushed to database");
-            
-            // Force a refresh to ensure all relationships are loaded
-            orderRepository.flush();
-            
-            // Save shipping address to user profile for future use
-            String shippingAddress = orderData.get("shippingAddress").toString();
-            if (shippingAddress != null && !shippingAddress.isEmpty()) {
-                // Parse shipping address (format: "address, city, zipCode, country")
-                String[] addressParts = shippingAddress.split(",");
-                if (addressParts.length >= 4) {
-                    user.setAddress(addressParts[0].trim());
-                    user.setCity(addressParts[1].trim());
-                    user.setZipCode(addressParts[2].trim());
-                    user.setCountry(addressParts[3].trim());
-                } else if (addressParts.length >= 1) {
-                    user.setAddress(shippingAddress);
-                }
-            }
-            
-            // Save phone if provided in order data
-            if (orderData.containsKey("phone") && orderData.get("phone") != null) {
-                user.setPhone(orderData.get("phone").toString());
-            }
             
-            // Save address fields if provided separately
-            if (orderData.containsKey("city") && orderData.get("city") != null) {
-                user.setCity(orderData.get("city").toString());
-            }
-            if (orderData.containsKey("zipCode") && orderData.get("zipCode") != null) {
-                user.setZipCode(orderData.get("zipCode").toString());
-            }
-            if (orderData.containsKey("country") && orderData.get("country") != null) {
-                user.setCountry(orderData.get("country").toString());
+            // Reserve stock atomically, as late as possible so row locks are held briefly;
+            // the conditional update is the only stock check, catalogue stock may be seconds old
+            try {
+                hotSkuInventoryService.reserveStock(quantitiesByProduct);
+            } catch (InsufficientStockException e) {
+                throw new RuntimeException("Insufficient stock for product: " + productsById.get(e.getProductId()).getName());
             }
             
-            userRepository.save(user);
+            // Order lifecycle timer, armed once the order commits
+            orderTransitionScheduler.scheduleAfterCommit(savedOrder.getId(), savedOrder.getCreatedAt());
             
-            // Clear user's cart
-            cartRepository.deleteByUserId(userId);
+            // The buyer's next reads (order confirmation, history) must see this order even if replicas lag
+            readYourWritesService.recordWrite(userId);
             
-            // Refresh ML recommendation models with new order data
-            recommendationService.evictCache();
-            recommendationService.initializeMLModels();
+            // Post-checkout work (profile address, cart, recommendations) runs off the request path
+            outboxService.publish(OrderPlacedEvent.TYPE, savedOrder.getId(), new OrderPlacedEvent(
+                savedOrder.getId(),
+                userId,
+                request.shippingAddress(),
+                request.phone(),
+                request.city(),
+                request.zipCode(),
+                request.country(),
+                List.copyOf(quantitiesByProduct.keySet())));
             
             return savedOrder;
         } catch (Exception e) {
@@ -147,13 +134,55 @@ public class OrderService {
             throw new RuntimeException("Failed to create order: " + e.getMessage(), e);
         }
     }
+    
+    /**
+     * Prices a cart the way createOrder will, so checkout can show the server's total
+     * before the order is placed.
+     */
+    public OrderQuote quote(List<CreateOrderRequest.Line> lines) {
+        Map<Long, Product> productsById = resolveProducts(lines);
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (CreateOrderRequest.Line line : lines) {
+            Product product = productsById.get(line.productId());
+            if (product == null) {
+                throw new RuntimeException("Product not found with ID: " + line.productId());
+            }
+            if (product.getPrice() == null) {
+                throw new RuntimeException("Product is not available for sale: " + product.getName());
+            }
+            subtotal = subtotal.add(product.getPrice().multiply(BigDecimal.valueOf(line.quantity())));
+        }
+        return priced(subtotal);
+    }
+    
+    private OrderQuote priced(BigDecimal subtotal) {
+        BigDecimal fee = shippingFee.setScale(2, RoundingMode.HALF_UP);
+        BigDecimal roundedSubtotal = subtotal.setScale(2, RoundingMode.HALF_UP);
+        return new OrderQuote(roundedSubtotal, fee, roundedSubtotal.add(fee));
+    }
+    
+    /**
+     * Look line-item products up in the in-memory catalogue and load only the ones it does
+     * not know yet (created since the last refresh) from the database in one query.
+     * Catalogue copies are detached but carry their id, which is all the order item's
+     * foreign key needs, so the common case costs no product SELECT at all.
+     */
+    private Map<Long, Product> resolveProducts(List<CreateOrderRequest.Line> lines) {
+        Map<Long, Product> productsById = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (CreateOrderRequest.Line line : lines) {
+            Optional<Product> cached = catalogueService.findProduct(line.productId());
+            if (cached.isPresent()) {
+                productsById.put(line.productId(), cached.get());
+            } else {
+                missing.add(line.productId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Product product : productRepository.findAllById(missing)) {
+                productsById.put(product.getId(), product);
+            }
+        }
+        return productsById;
+    }
 }
-
-
-
-
-
-
-
-
-
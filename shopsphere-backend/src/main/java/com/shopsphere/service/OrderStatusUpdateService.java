@@ -1,111 +1,181 @@
 package com.shopsphere.service;
 
+import com.shopsphere.config.DataSourceRouting;
+import com.shopsphere.config.DatabaseWorkload;
+import com.shopsphere.dto.DueOrderTransition;
 import com.shopsphere.model.Order;
-import com.shopsphere.model.OrderStatusHistory;
 import com.shopsphere.repository.OrderRepository;
-import com.shopsphere.repository.OrderStatusHistoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class OrderStatusUpdateService {
     
+    private static final int PAGE_SIZE = 500;
+    private static final int MAX_PAGES_PER_RUN = 20;
+    private static final int POLL_GRACE_SECONDS = 5;
+    // Bounds the IN list and the multi-row history INSERT
+    private static final int BULK_CHUNK_SIZE = 500;
+    
     @Autowired
     private OrderRepository orderRepository;
     
     @Autowired
-    private OrderStatusHistoryRepository statusHistoryRepository;
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
     
-    // Auto-update order statuses every 30 seconds for faster updates
-    @Scheduled(fixedRate = 30000) // 30 seconds in milliseconds
-    @Transactional
+    @Autowired
+    private SchedulerCoordinator schedulerCoordinator;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    public OrderStatusUpdateService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Safety net behind OrderTransitionScheduler's in-memory timers: picks up orders the
+     * timers missed (placed on another node, manual changes, restarts). Only due orders
+     * are read, via the next_transition_at index, in bounded pages; each page is applied
+     * with one UPDATE per status group. Overdue orders may advance several steps in one run.
+     * With several instances each node only polls the order partitions it holds a lease on.
+     */
+    @Scheduled(fixedDelay = 60000)
+    @DatabaseWorkload(DataSourceRouting.Workload.BATCH)
     public void updateOrderStatuses() {
-        List<Order> pendingOrders = orderRepository.findAll().stream()
-            .filter(o -> o.getStatus() != Order.OrderStatus.DELIVERED && 
-                        o.getStatus() != Order.OrderStatus.CANCELLED)
-            .toList();
-        
-        LocalDateTime now = LocalDateTime.now();
-        
-        for (Order order : pendingOrders) {
-            LocalDateTime orderDate = order.getCreatedAt();
-            // Use minutes for faster status updates (for demo/testing purposes)
-            long minutesSinceOrder = ChronoUnit.MINUTES.between(orderDate, now);
-            
-            Order.OrderStatus currentStatus = order.getStatus();
-            Order.OrderStatus newStatus = null;
+        for (int partition : schedulerCoordinator.getOwnedPartitions()) {
+            pollPartition(partition);
+        }
+    }
+    
+    private void pollPartition(int partition) {
+        int partitions = schedulerCoordinator.getOrderPartitions();
+        for (int page = 0; page < MAX_PAGES_PER_RUN; page++) {
+            // Leave just-due orders to the timers; always page 0 since applied transitions leave the due range
+            LocalDateTime cutoff = LocalDateTime.now().minusSeconds(POLL_GRACE_SECONDS);
+            List<DueOrderTransition> due = partitions == 1
+                ? orderRepository.findDueTransitions(cutoff, PageRequest.of(0, PAGE_SIZE))
+                : orderRepository.findDueTransitionsInPartition(cutoff, partitions, partition, PageRequest.of(0, PAGE_SIZE));
+            if (due.isEmpty()) {
+                return;
+            }
             
-            // Progress status based on time since order (in minutes for faster updates)
-            switch (currentStatus) {
-                case PENDING:
-                    if (minutesSinceOrder >= 2) { // After 2 minutes, confirm
-                        newStatus = Order.OrderStatus.CONFIRMED;
-                    }
-                    break;
-                case CONFIRMED:
-                    if (minutesSinceOrder >= 5) { // After 5 minutes, picked up
-                        newStatus = Order.OrderStatus.PICKED_UP;
-                    }
-                    break;
-                case PICKED_UP:
-                    if (minutesSinceOrder >= 10) { // After 10 minutes, in transit
-                        newStatus = Order.OrderStatus.IN_TRANSIT;
-                    }
-                    break;
-                case IN_TRANSIT:
-                    if (minutesSinceOrder >= 15) { // After 15 minutes, out for delivery
-                        newStatus = Order.OrderStatus.OUT_FOR_DELIVERY;
-                    }
-                    break;
-                case OUT_FOR_DELIVERY:
-                    if (minutesSinceOrder >= 20) { // After 20 minutes, delivered
-                        newStatus = Order.OrderStatus.DELIVERED;
-                    }
-                    break;
-                case DELIVERED:
-                case CANCELLED:
-                    // No status change for delivered or cancelled orders
-                    break;
+            Map<Order.OrderStatus, List<Long>> idsByStatus = new EnumMap<>(Order.OrderStatus.class);
+            for (DueOrderTransition order : due) {
+                idsByStatus.computeIfAbsent(order.status(), s -> new ArrayList<>()).add(order.id());
             }
+            idsByStatus.forEach(this::advance);
             
-            if (newStatus != null && newStatus != currentStatus) {
-                order.updateStatus(newStatus);
-                orderRepository.save(order);
-                
-                // Create status history entry
-                OrderStatusHistory history = new OrderStatusHistory();
-                history.setOrder(order);
-                history.setStatus(newStatus);
-                history.setStatusDate(LocalDateTime.now());
-                history.setDescription(getStatusDescription(newStatus));
-                statusHistoryRepository.save(history);
-                
-                System.out.println("Order #" + order.getId() + " status updated to: " + newStatus);
+            if (due.size() < PAGE_SIZE) {
+                return;
             }
         }
     }
     
-    private String getStatusDescription(Order.OrderStatus status) {
-        switch (status) {
-            case CONFIRMED:
-                return "Order confirmed by seller";
-            case PICKED_UP:
-                return "Item picked up from seller";
-            case IN_TRANSIT:
-                return "Item in transit to your city";
-            case OUT_FOR_DELIVERY:
-                return "Out for delivery";
-            case DELIVERED:
-                return "Order delivered successfully";
-            default:
-                return "";
+    /**
+     * Move the given orders from current to the lifecycle's next status with a single
+     * UPDATE, in its own transaction. Rows are locked and re-checked first so orders
+     * changed concurrently (for example cancelled by hand, or already advanced by another
+     * trigger) are skipped. Returns the ids that actually moved. Called by the lifecycle
+     * timers, so it runs on the batch pool like the poller; the admin bulk endpoint below
+     * stays on the request's pool.
+     */
+    @DatabaseWorkload(DataSourceRouting.Workload.BATCH)
+    public List<Long> advance(Order.OrderStatus current, List<Long> ids) {
+        List<Long> moved = transactionTemplate.execute(status -> applyTransition(ids, current, LocalDateTime.now()));
+        return moved != null ? moved : List.of();
+    }
+    
+    private List<Long> applyTransition(List<Long> ids, Order.OrderStatus current, LocalDateTime now) {
+        Order.OrderStatus next = OrderLifecycle.nextStatus(current);
+        if (next == null) {
+            // Terminal orders should never be due; clear the stray due time
+            namedJdbcTemplate.update("UPDATE orders SET next_transition_at = NULL WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids));
+            return List.of();
         }
+        
+        List<Long> lockedIds = namedJdbcTemplate.queryForList(
+            "SELECT id FROM orders WHERE id IN (:ids) AND status = :current FOR UPDATE",
+            new MapSqlParameterSource().addValue("ids", ids).addValue("current", current.name()), Long.class);
+        writeTransition(lockedIds, next, now);
+        
+        if (!lockedIds.isEmpty()) {
+            System.out.println(lockedIds.size() + " orders status updated from " + current + " to: " + next);
+        }
+        return lockedIds;
+    }
+    
+    /**
+     * Apply one status change to many orders: a single UPDATE ... WHERE id IN (...) plus
+     * one multi-row INSERT into order_status_history per chunk. Delivered and cancelled
+     * orders, and orders already in the target status, are skipped. Returns the ids that
+     * changed. Used by the admin bulk endpoint and manual updates.
+     */
+    @Transactional
+    public List<Long> bulkUpdateStatus(Collection<Long> orderIds, Order.OrderStatus newStatus) {
+        List<Long> changed = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+            List<Long> lockedIds = namedJdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE id IN (:ids) AND status NOT IN ('DELIVERED', 'CANCELLED') " +
+                "AND status <> :status FOR UPDATE",
+                new MapSqlParameterSource().addValue("ids", chunk).addValue("status", newStatus.name()), Long.class);
+            writeTransition(lockedIds, newStatus, now);
+            changed.addAll(lockedIds);
+        }
+        System.out.println("Bulk status update: " + changed.size() + " of " + ids.size() + " orders set to " + newStatus);
+        return changed;
+    }
+    
+    // Caller holds the row locks for ids
+    private void writeTransition(List<Long> ids, Order.OrderStatus status, LocalDateTime now) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        
+        // Timestamp column for the status, and the due time of the following automatic step
+        String dateColumn = OrderLifecycle.dateColumn(status);
+        String setDate = dateColumn != null ? dateColumn + " = COALESCE(" + dateColumn + ", :now), " : "";
+        Integer minutes = OrderLifecycle.minutesUntilNextTransition(status);
+        String nextTransition = minutes != null ? "DATE_ADD(created_at, INTERVAL :minutes MINUTE)" : "NULL";
+        namedJdbcTemplate.update(
+            "UPDATE orders SET status = :status, " + setDate + "updated_at = :now, " +
+            "next_transition_at = " + nextTransition + " WHERE id IN (:ids)",
+            new MapSqlParameterSource()
+                .addValue("status", status.name())
+                .addValue("now", now)
+                .addValue("minutes", minutes)
+                .addValue("ids", ids));
+        
+        StringBuilder sql = new StringBuilder(
+            "INSERT INTO order_status_history (order_id, status, status_date, description) VALUES ");
+        List<Object> args = new ArrayList<>(ids.size() * 4);
+        String description = OrderLifecycle.description(status);
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+            args.add(ids.get(i));
+            args.add(status.name());
+            args.add(now);
+            args.add(description);
+        }
+        namedJdbcTemplate.getJdbcTemplate().update(sql.toString(), args.toArray());
     }
     
     // Manual status update method (can be called from controller)
@@ -119,16 +189,6 @@ public class OrderStatusUpdateService {
             throw new RuntimeException("Cannot update status of delivered or cancelled order");
         }
         
-        order.updateStatus(newStatus);
-        orderRepository.save(order);
-        
-        // Create status history entry
-        OrderStatusHistory history = new OrderStatusHistory();
-        history.setOrder(order);
-        history.setStatus(newStatus);
-        history.setStatusDate(LocalDateTime.now());
-        history.setDescription(getStatusDescription(newStatus));
-        statusHistoryRepository.save(history);
+        bulkUpdateStatus(List.of(orderId), newStatus);
     }
 }
-
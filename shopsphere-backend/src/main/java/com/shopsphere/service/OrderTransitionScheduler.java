@@ -0,0 +1,177 @@
+package com.shopsphere.service;
+
+import com.shopsphere.config.DataSourceRouting;
+import com.shopsphere.config.DatabaseWorkload;
+import com.shopsphere.dto.DueOrderTransition;
+import com.shopsphere.model.Order;
+import com.shopsphere.repository.OrderRepository;
+import com.shopsphere.util.HashedTimingWheel;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires automatic order status changes from in-memory timers instead of polling the
+ * database, so an order moves on within about a second of being due and the database only
+ * sees work for transitions that actually happen.
+ * 
+ * Timers live in a hashed timing wheel (1s ticks). It is rebuilt from next_transition_at
+ * on startup, fed by checkout for new orders, and re-armed for the following step after
+ * each transition. Expired timers are grouped by status and applied as set-based updates
+ * on a small worker pool. A stale timer (order cancelled or already advanced) is harmless:
+ * the update re-checks the status under lock and skips it.
+ */
+@Service
+@DatabaseWorkload(DataSourceRouting.Workload.BATCH)
+public class OrderTransitionScheduler {
+    
+    private static final long TICK_MILLIS = 1000;
+    // 10 minutes per rotation; the 20-minute lifecycle wraps at most twice
+    private static final int WHEEL_SLOTS = 600;
+    private static final int WORKER_THREADS = 2;
+    private static final int BATCH_SIZE = 500;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private OrderStatusUpdateService orderStatusUpdateService;
+    
+    @Autowired
+    private SchedulerCoordinator schedulerCoordinator;
+    
+    private final HashedTimingWheel<DueOrderTransition> wheel;
+    private final ExecutorService workers;
+    
+    public OrderTransitionScheduler() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(WORKER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "order-transition-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.wheel = new HashedTimingWheel<>("order-transition-wheel", TICK_MILLIS, WHEEL_SLOTS, this::dispatch);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int loaded = 0;
+        try {
+            // Only arm timers for the order partitions this node owns; other nodes cover the rest
+            schedulerCoordinator.heartbeat();
+            for (int page = 0; ; page++) {
+                List<DueOrderTransition> pending = orderRepository.findPendingTransitions(PageRequest.of(page, REBUILD_PAGE_SIZE));
+                for (DueOrderTransition transition : pending) {
+                    if (schedulerCoordinator.ownsOrder(transition.id())) {
+                        schedule(transition);
+                        loaded++;
+                    }
+                }
+                if (pending.size() < REBUILD_PAGE_SIZE) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            // The database poll in OrderStatusUpdateService still covers these orders
+            System.err.println("⚠️ Failed to rebuild order transition timers: " + e.getMessage());
+        }
+        wheel.start();
+        System.out.println("✅ Order transition timers armed for " + loaded + " active orders");
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        workers.shutdownNow();
+    }
+    
+    /**
+     * Arm the first timer for a newly placed order once its transaction commits, so the
+     * timer never fires for an order that was rolled back.
+     */
+    public void scheduleAfterCommit(Long orderId, LocalDateTime createdAt) {
+        DueOrderTransition transition = new DueOrderTransition(orderId, Order.OrderStatus.PENDING, createdAt,
+            OrderLifecycle.nextTransitionAt(createdAt, Order.OrderStatus.PENDING));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            schedule(transition);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                schedule(transition);
+            }
+        });
+    }
+    
+    public int pendingTimers() {
+        return wheel.size();
+    }
+    
+    private void schedule(DueOrderTransition transition) {
+        if (transition.nextTransitionAt() != null) {
+            wheel.schedule(transition, toEpochMillis(transition.nextTransitionAt()));
+        }
+    }
+    
+    private void dispatch(List<DueOrderTransition> expired) {
+        Map<Order.OrderStatus, List<DueOrderTransition>> byStatus = new EnumMap<>(Order.OrderStatus.class);
+        for (DueOrderTransition transition : expired) {
+            byStatus.computeIfAbsent(transition.status(), s -> new ArrayList<>()).add(transition);
+        }
+        byStatus.forEach((status, transitions) -> {
+            for (int from = 0; from < transitions.size(); from += BATCH_SIZE) {
+                List<DueOrderTransition> batch = transitions.subList(from, Math.min(from + BATCH_SIZE, transitions.size()));
+                workers.execute(() -> fire(status, batch));
+            }
+        });
+    }
+    
+    private void fire(Order.OrderStatus status, List<DueOrderTransition> batch) {
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (DueOrderTransition transition : batch) {
+            ids.add(transition.id());
+        }
+        
+        List<Long> moved;
+        try {
+            moved = orderStatusUpdateService.advance(status, ids);
+        } catch (Exception e) {
+            // Leave the orders to the database poll rather than retrying in a loop
+            System.err.println("⚠️ Order transition batch failed (" + status + ", " + ids.size() + " orders): " + e.getMessage());
+            return;
+        }
+        
+        // Arm the following step for the orders that moved
+        Order.OrderStatus next = OrderLifecycle.nextStatus(status);
+        Set<Long> movedIds = new HashSet<>(moved);
+        for (DueOrderTransition transition : batch) {
+            if (movedIds.contains(transition.id())) {
+                schedule(new DueOrderTransition(transition.id(), next, transition.createdAt(),
+                    OrderLifecycle.nextTransitionAt(transition.createdAt(), next)));
+            }
+        }
+    }
+    
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,134 @@
+package com.shopsphere.service;
+
+import com.shopsphere.config.DataSourceRouting;
+import com.shopsphere.config.DatabaseWorkload;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopsphere.event.OutboxEventHandler;
+import com.shopsphere.model.OutboxEvent;
+import com.shopsphere.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Polls the outbox and hands each due event to the handler registered for its type.
+ * 
+ * Each event is handled in its own transaction together with marking it processed, so a
+ * crash never loses an event; it may at worst be handled again. Failures are retried
+ * with exponential backoff and parked as FAILED after MAX_ATTEMPTS.
+ */
+@Service
+@DatabaseWorkload(DataSourceRouting.Workload.BATCH)
+public class OutboxDispatcher {
+    
+    private static final int BATCH_SIZE = 100;
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long MAX_BACKOFF_SECONDS = 300;
+    private static final int RETENTION_DAYS = 7;
+    
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private SchedulerCoordinator schedulerCoordinator;
+    
+    private final Map<String, OutboxEventHandler<?>> handlers = new HashMap<>();
+    private final TransactionTemplate transactionTemplate;
+    
+    public OutboxDispatcher(List<OutboxEventHandler<?>> handlers, PlatformTransactionManager transactionManager) {
+        for (OutboxEventHandler<?> handler : handlers) {
+            this.handlers.put(handler.eventType(), handler);
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Scheduled(fixedDelay = 1000)
+    public void dispatch() {
+        // One dispatcher across all instances; handlers stay idempotent for lease handovers
+        if (!schedulerCoordinator.isLeader()) {
+            return;
+        }
+        List<OutboxEvent> due;
+        try {
+            due = outboxEventRepository.findDue(LocalDateTime.now(), PageRequest.of(0, BATCH_SIZE));
+        } catch (Exception e) {
+            System.err.println("⚠️ Outbox poll failed: " + e.getMessage());
+            return;
+        }
+        
+        for (OutboxEvent event : due) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    handle(event);
+                    event.setStatus(OutboxEvent.Status.PROCESSED);
+                    event.setProcessedAt(LocalDateTime.now());
+                    event.setLastError(null);
+                    outboxEventRepository.save(event);
+                });
+            } catch (Exception e) {
+                recordFailure(event, e);
+            }
+        }
+    }
+    
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgeProcessed() {
+        if (!schedulerCoordinator.isLeader()) {
+            return;
+        }
+        Integer deleted = transactionTemplate.execute(status ->
+            outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(RETENTION_DAYS)));
+        System.out.println("🧹 Purged " + deleted + " processed outbox events");
+    }
+    
+    private <T> void handle(OutboxEvent event) {
+        @SuppressWarnings("unchecked")
+        OutboxEventHandler<T> handler = (OutboxEventHandler<T>) handlers.get(event.getEventType());
+        if (handler == null) {
+            throw new IllegalStateException("No handler registered for outbox event type " + event.getEventType());
+        }
+        try {
+            handler.handle(objectMapper.readValue(event.getPayload(), handler.payloadType()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload for outbox event " + event.getId(), e);
+        }
+    }
+    
+    private void recordFailure(OutboxEvent event, Exception e) {
+        int attempts = (event.getAttempts() != null ? event.getAttempts() : 0) + 1;
+        event.setAttempts(attempts);
+        event.setProcessedAt(null);
+        event.setLastError(truncate(e.getClass().getSimpleName() + ": " + e.getMessage()));
+        if (attempts >= MAX_ATTEMPTS) {
+            event.setStatus(OutboxEvent.Status.FAILED);
+            System.err.println("❌ Outbox event " + event.getId() + " (" + event.getEventType() + ") failed permanently: " + e.getMessage());
+        } else {
+            event.setStatus(OutboxEvent.Status.PENDING);
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << attempts);
+            event.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+            System.err.println("⚠️ Outbox event " + event.getId() + " (" + event.getEventType() + ") failed, retrying in " + backoff + "s: " + e.getMessage());
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.save(event));
+        } catch (Exception saveError) {
+            // Row stays PENDING and due, so the next poll picks it up again
+            System.err.println("⚠️ Could not record outbox failure for event " + event.getId() + ": " + saveError.getMessage());
+        }
+    }
+    
+    private static String truncate(String message) {
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
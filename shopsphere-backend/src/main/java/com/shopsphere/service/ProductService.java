@@ -4,24 +4,27 @@ import com.shopsphere.model.Product;
 import com.shopsphere.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
 @Service
-@Transactional
 public class ProductService {
     
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private CatalogueService catalogueService;
+    
+    // Catalogue listings are served from the in-memory snapshot; returned products are shared and must not be modified
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return catalogueService.getAllProducts();
     }
     
     @Cacheable(value = "products", key = "#id")
+    @Transactional(readOnly = true)
     public Optional<Product> getProductById(Long id) {
         try {
             Optional<Product> product = productRepository.findById(id);
@@ -40,27 +43,27 @@ public class ProductService {
     }
     
     public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+        return catalogueService.getProductsByCategory(category);
     }
     
     public List<Product> searchProducts(String query) {
         if (query == null || query.trim().isEmpty()) {
             return getAllProducts();
         }
-        return productRepository.searchProducts(query.trim());
+        return catalogueService.searchProducts(query.trim());
     }
     
     public List<Product> getTopRatedProducts() {
-        return productRepository.findTopRatedProducts();
+        return catalogueService.getTopRatedProducts();
     }
     
-    @CacheEvict(value = "products", key = "#product.id")
+    // Cache eviction for saves and deletes is driven by ProductChangeListener after commit
+    @Transactional
     public Product saveProduct(Product product) {
-        Product saved = productRepository.save(product);
-        // Also evict all entries to ensure category changes are reflected
-        return saved;
+        return productRepository.save(product);
     }
     
+    @Transactional
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
     }
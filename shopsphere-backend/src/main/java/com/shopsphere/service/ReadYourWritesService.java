@@ -0,0 +1,88 @@
+package com.shopsphere.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users wrote recently so their reads stay on the primary for a few
+ * seconds (shopsphere.datasource.read-your-writes-seconds) instead of hitting a replica
+ * that may not have caught up yet. The mark is kept in Redis so every instance sees it,
+ * with a local copy as fast path; without replicas nothing is recorded.
+ */
+@Service
+public class ReadYourWritesService {
+    
+    private static final String PIN_KEY_PREFIX = "db:primary-pin:";
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Value("${shopsphere.datasource.replica-urls:}")
+    private List<String> replicaUrls;
+    
+    @Value("${shopsphere.datasource.read-your-writes-seconds:5}")
+    private long pinSeconds;
+    
+    // userId -> pinned until (epoch millis)
+    private final Map<Long, Long> localPins = new ConcurrentHashMap<>();
+    
+    public boolean isEnabled() {
+        return replicaUrls != null && replicaUrls.stream().anyMatch(url -> !url.isBlank());
+    }
+    
+    /**
+     * Pin the user's reads to the primary, starting when the current transaction commits.
+     */
+    public void recordWrite(Long userId) {
+        if (userId == null || !isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pin(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pin(userId);
+            }
+        });
+    }
+    
+    public boolean isPinned(Long userId) {
+        if (userId == null || !isEnabled()) {
+            return false;
+        }
+        Long until = localPins.get(userId);
+        if (until != null) {
+            if (until > System.currentTimeMillis()) {
+                return true;
+            }
+            localPins.remove(userId, until);
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(PIN_KEY_PREFIX + userId));
+        } catch (Exception e) {
+            // Without Redis only this instance's own pins are known
+            return false;
+        }
+    }
+    
+    private void pin(Long userId) {
+        localPins.put(userId, System.currentTimeMillis() + pinSeconds * 1000);
+        try {
+            redisTemplate.opsForValue().set(PIN_KEY_PREFIX + userId, "1", Duration.ofSeconds(pinSeconds));
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not share primary pin for user " + userId + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package com.shopsphere.service;
 
+import com.shopsphere.config.DataSourceRouting;
+import com.shopsphere.config.DatabaseWorkload;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shopsphere.model.Order;
 import com.shopsphere.model.Product;
 import com.shopsphere.model.ProductAssociation;
+import com.shopsphere.repository.KeysetChunkReader;
 import com.shopsphere.repository.OrderRepository;
-import com.shopsphere.repository.ProductRepository;
 import com.shopsphere.repository.ProductAssociationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +21,7 @@ import java.math.BigDecimal;
 import java.util.*;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /**
@@ -28,23 +33,51 @@ import java.util.stream.Collectors;
  * 3. Association Rule Mining - Finds patterns in purchase behavior
  */
 @Service
-@Transactional
+@Transactional(readOnly = true) // Only reads; served by a replica when one is configured
 public class RecommendationService {
     
     @Autowired
-    private ProductRepository productRepository;
+    private ProductAssociationRepository associationRepository;
+    
+    @Autowired
+    private KeysetChunkReader keysetChunkReader;
     
     @Autowired
     private OrderRepository orderRepository;
     
     @Autowired
-    private ProductAssociationRepository associationRepository;
+    private CatalogueService catalogueService;
+    
+    @Autowired
+    private SchedulerCoordinator schedulerCoordinator;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private static final KeysetChunkReader.Query<Order> NON_CANCELLED_ORDERS = KeysetChunkReader.Query.of(Order.class)
+        .where("e.status != 'CANCELLED'", Map.of())
+        .fetch(Order.SUMMARY_GRAPH);
+    
+    private static final String SHARED_MODELS_KEY = "ml:models";
+    private static final String SHARED_MODELS_VERSION_KEY = "ml:models:version";
     
     // In-memory cache for co-occurrence matrix (product -> product -> frequency)
-    private Map<Long, Map<Long, Double>> coOccurrenceMatrix = new HashMap<>();
+    private volatile Map<Long, Map<Long, Double>> coOccurrenceMatrix = new HashMap<>();
     
     // In-memory cache for product similarity scores
-    private Map<Long, Map<Long, Double>> similarityMatrix = new HashMap<>();
+    private volatile Map<Long, Map<Long, Double>> similarityMatrix = new HashMap<>();
+    
+    // Version of the shared models currently loaded (see publishModels)
+    private volatile String loadedModelsVersion;
+    
+    private record SharedModels(Map<Long, Map<Long, Double>> coOccurrence, Map<Long, Map<Long, Double>> similarity) {
+    }
+    
+    // Set when new orders arrive; cleared when the models are rebuilt
+    private final AtomicBoolean modelsStale = new AtomicBoolean(false);
     
     // Minimum support for association rules (products must appear together in at least 2% of orders)
     private static final double MIN_SUPPORT = 0.02;
@@ -55,58 +88,152 @@ public class RecommendationService {
     /**
      * Initialize ML models on startup and periodically refresh
      */
-    @Scheduled(fixedRate = 3600000) // Refresh every hour
+    @DatabaseWorkload(DataSourceRouting.Workload.ANALYTICS)
     public void initializeMLModels() {
+        modelsStale.set(false);
         buildCoOccurrenceMatrix();
         buildSimilarityMatrix();
     }
     
+    /**
+     * Hourly rebuild. Only the scheduler leader builds; it publishes the models to Redis
+     * and the other instances load them from there (syncSharedModels).
+     */
+    @Scheduled(fixedRate = 3600000) // Refresh every hour
+    @DatabaseWorkload(DataSourceRouting.Workload.ANALYTICS)
+    public void refreshModels() {
+        if (schedulerCoordinator.isLeader()) {
+            initializeMLModels();
+            publishModels();
+        }
+    }
+    
+    /**
+     * Flag the models as out of date after new orders. Rebuilds are coalesced by
+     * rebuildStaleModels so a burst of checkouts triggers a single rebuild.
+     */
+    public void markModelsStale() {
+        modelsStale.set(true);
+    }
+    
+    @Scheduled(fixedDelay = 10000)
+    @DatabaseWorkload(DataSourceRouting.Workload.ANALYTICS)
+    public void rebuildStaleModels() {
+        // Also covers a freshly elected leader that has not built or published models yet
+        if (schedulerCoordinator.isLeader() && (modelsStale.get() || loadedModelsVersion == null)) {
+            initializeMLModels();
+            publishModels();
+        }
+    }
+    
+    @Scheduled(fixedDelay = 30000)
+    public void syncSharedModels() {
+        if (!schedulerCoordinator.isLeader()) {
+            loadSharedModels();
+        }
+    }
+    
+    private void publishModels() {
+        try {
+            String version = String.valueOf(System.currentTimeMillis());
+            String json = objectMapper.writeValueAsString(new SharedModels(coOccurrenceMatrix, similarityMatrix));
+            redisTemplate.opsForValue().set(SHARED_MODELS_KEY, json);
+            redisTemplate.opsForValue().set(SHARED_MODELS_VERSION_KEY, version);
+            loadedModelsVersion = version;
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not publish recommendation models: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Load the leader's models if a newer version was published. Returns whether models
+     * are available from Redis at all.
+     */
+    private boolean loadSharedModels() {
+        try {
+            String version = redisTemplate.opsForValue().get(SHARED_MODELS_VERSION_KEY);
+            if (version == null) {
+                return false;
+            }
+            if (version.equals(loadedModelsVersion)) {
+                return true;
+            }
+            String json = redisTemplate.opsForValue().get(SHARED_MODELS_KEY);
+            if (json == null) {
+                return false;
+            }
+            SharedModels models = objectMapper.readValue(json, SharedModels.class);
+            coOccurrenceMatrix = models.coOccurrence();
+            similarityMatrix = models.similarity();
+            loadedModelsVersion = version;
+            return true;
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not load shared recommendation models: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    // Lazy initialisation for requests that arrive before any model is loaded
+    private void ensureModels() {
+        if ((coOccurrenceMatrix.isEmpty() || similarityMatrix.isEmpty()) && !loadSharedModels()) {
+            if (coOccurrenceMatrix.isEmpty()) {
+                buildCoOccurrenceMatrix();
+            }
+            if (similarityMatrix.isEmpty()) {
+                buildSimilarityMatrix();
+            }
+        }
+    }
+    
     /**
      * Build co-occurrence matrix from order history
      * This captures which products are frequently bought together
      */
     private void buildCoOccurrenceMatrix() {
-        coOccurrenceMatrix.clear();
-        List<Order> orders = orderRepository.findAllWithOrderItems();
+        Map<Long, Map<Long, Double>> matrix = new HashMap<>();
         
-        if (orders.isEmpty()) {
-            return;
-        }
-        
-        int totalOrders = orders.size();
-        
-        // Count co-occurrences
-        for (Order order : orders) {
-            if (order.getOrderItems() == null || order.getOrderItems().isEmpty()) {
-                continue;
-            }
-            
-            List<Long> productIds = order.getOrderItems().stream()
-                .map(item -> item.getProduct().getId())
-                .distinct()
-                .collect(Collectors.toList());
-            
-            // Build co-occurrence pairs
-            for (int i = 0; i < productIds.size(); i++) {
-                Long productId1 = productIds.get(i);
-                for (int j = i + 1; j < productIds.size(); j++) {
-                    Long productId2 = productIds.get(j);
-                    
-                    // Add bidirectional co-occurrence
-                    coOccurrenceMatrix.computeIfAbsent(productId1, k -> new HashMap<>())
-                        .merge(productId2, 1.0, Double::sum);
-                    coOccurrenceMatrix.computeIfAbsent(productId2, k -> new HashMap<>())
-                        .merge(productId1, 1.0, Double::sum);
+        // Stream the order history in keyset chunks instead of loading every order at once
+        long totalOrders = keysetChunkReader.forEachChunk(NON_CANCELLED_ORDERS, orders -> {
+            for (Order order : orders) {
+                if (order.getOrderItems() == null || order.getOrderItems().isEmpty()) {
+                    continue;
+                }
+                
+                List<Long> productIds = order.getOrderItems().stream()
+                    .map(item -> item.getProduct().getId())
+                    .distinct()
+                    .collect(Collectors.toList());
+                
+                // Build co-occurrence pairs
+                for (int i = 0; i < productIds.size(); i++) {
+                    Long productId1 = productIds.get(i);
+                    for (int j = i + 1; j < productIds.size(); j++) {
+                        Long productId2 = productIds.get(j);
+                        
+                        // Add bidirectional co-occurrence
+                        matrix.computeIfAbsent(productId1, k -> new HashMap<>())
+                            .merge(productId2, 1.0, Double::sum);
+                        matrix.computeIfAbsent(productId2, k -> new HashMap<>())
+                            .merge(productId1, 1.0, Double::sum);
+                    }
                 }
             }
+        });
+        
+        if (totalOrders == 0) {
+            coOccurrenceMatrix = matrix;
+            return;
         }
         
         // Normalize by total orders (convert to support percentage)
-        for (Map<Long, Double> coOccurrences : coOccurrenceMatrix.values()) {
+        for (Map<Long, Double> coOccurrences : matrix.values()) {
             for (Long productId : new HashSet<>(coOccurrences.keySet())) {
                 coOccurrences.put(productId, coOccurrences.get(productId) / totalOrders);
             }
         }
+        
+        // Swap in the finished matrix so readers never see a partial one
+        coOccurrenceMatrix = matrix;
     }
     
     /**
@@ -114,8 +241,8 @@ public class RecommendationService {
      * Similarity based on: category, price range, rating
      */
     private void buildSimilarityMatrix() {
-        similarityMatrix.clear();
-        List<Product> allProducts = productRepository.findAll();
+        Map<Long, Map<Long, Double>> matrix = new HashMap<>();
+        List<Product> allProducts = catalogueService.getAllProducts();
         
         for (Product product1 : allProducts) {
             Map<Long, Double> similarities = new HashMap<>();
@@ -128,9 +255,10 @@ public class RecommendationService {
                 }
             }
             if (!similarities.isEmpty()) {
-                similarityMatrix.put(product1.getId(), similarities);
+                matrix.put(product1.getId(), similarities);
             }
         }
+        similarityMatrix = matrix;
     }
     
     /**
@@ -188,7 +316,7 @@ public class RecommendationService {
     // @Cacheable(value = "mlRecommendations", key = "#productId")
     public List<Product> getRecommendations(Long productId) {
         // Verify product exists
-        Product currentProduct = productRepository.findById(productId).orElse(null);
+        Product currentProduct = catalogueService.findProduct(productId).orElse(null);
         if (currentProduct == null) {
             throw new RuntimeException("Product not found");
         }
@@ -198,12 +326,7 @@ public class RecommendationService {
             : "";
         
         // Initialize models if empty
-        if (coOccurrenceMatrix.isEmpty()) {
-            buildCoOccurrenceMatrix();
-        }
-        if (similarityMatrix.isEmpty()) {
-            buildSimilarityMatrix();
-        }
+        ensureModels();
         
         // Helper method to check if two categories match (handles variations like "mens-shirts" and "clothing")
         java.util.function.Function<String, Boolean> isSameCategory = (String cat) -> {
@@ -282,7 +405,7 @@ public class RecommendationService {
         Map<Long, Double> coOccurrences = coOccurrenceMatrix.getOrDefault(productId, new HashMap<>());
         for (Map.Entry<Long, Double> entry : coOccurrences.entrySet()) {
             if (entry.getValue() >= MIN_SUPPORT) {
-                Product p = productRepository.findById(entry.getKey()).orElse(null);
+                Product p = catalogueService.findProduct(entry.getKey()).orElse(null);
                 if (p != null && !currentCategory.isEmpty()) {
                     String cat = p.getCategory() != null ? p.getCategory() : "";
                     // Only include if same or related category
@@ -299,7 +422,7 @@ public class RecommendationService {
         // 2. Content-Based Filtering (30% weight) - Similar products
         Map<Long, Double> similarities = similarityMatrix.getOrDefault(productId, new HashMap<>());
         for (Map.Entry<Long, Double> entry : similarities.entrySet()) {
-            Product p = productRepository.findById(entry.getKey()).orElse(null);
+            Product p = catalogueService.findProduct(entry.getKey()).orElse(null);
             if (p != null && !currentCategory.isEmpty()) {
                 String cat = p.getCategory() != null ? p.getCategory() : "";
                 // Only include if same or related category
@@ -315,7 +438,7 @@ public class RecommendationService {
         // 3. Association Rules (20% weight) - Find complementary products
         Map<Long, Double> associations = findAssociationRules(productId);
         for (Map.Entry<Long, Double> entry : associations.entrySet()) {
-            Product p = productRepository.findById(entry.getKey()).orElse(null);
+            Product p = catalogueService.findProduct(entry.getKey()).orElse(null);
             if (p != null && !currentCategory.isEmpty()) {
                 String cat = p.getCategory() != null ? p.getCategory() : "";
                 // Only include if same or related category
@@ -332,7 +455,7 @@ public class RecommendationService {
         // Also exclude products with similar names (e.g., if viewing a watch, don't show other watches)
         if (!currentCategory.isEmpty()) {
             // Get all products in the EXACT same category (excluding the current product)
-            List<Product> allProducts = productRepository.findAll();
+            List<Product> allProducts = catalogueService.getAllProducts();
             
             // Extract key words from current product name to identify product type
             String currentProductName = currentProduct.getName() != null ? currentProduct.getName().toLowerCase() : "";
@@ -485,38 +608,17 @@ public class RecommendationService {
      */
     private Map<Long, Double> findAssociationRules(Long productId) {
         Map<Long, Double> rules = new HashMap<>();
-        List<Order> orders = orderRepository.findAllWithOrderItems();
-        
-        if (orders.isEmpty()) {
-            return rules;
-        }
-        
-        // Count how many times productId appears in orders
-        long productFrequency = orders.stream()
-            .filter(order -> order.getOrderItems() != null)
-            .filter(order -> order.getOrderItems().stream()
-                .anyMatch(item -> item.getProduct().getId().equals(productId)))
-            .count();
         
+        // For each other product, calculate confidence: P(B|A) = P(A and B) / P(A)
+        // Both counts are aggregated by the database; no orders are loaded
+        long productFrequency = orderRepository.countOrdersContainingProduct(productId);
         if (productFrequency == 0) {
             return rules;
         }
         
-        // For each other product, calculate confidence: P(B|A) = P(A and B) / P(A)
         Map<Long, Long> productWithTargetCount = new HashMap<>();
-        
-        for (Order order : orders) {
-            if (order.getOrderItems() == null) continue;
-            
-            boolean containsTarget = order.getOrderItems().stream()
-                .anyMatch(item -> item.getProduct().getId().equals(productId));
-            
-            if (containsTarget) {
-                order.getOrderItems().stream()
-                    .map(item -> item.getProduct().getId())
-                    .filter(id -> !id.equals(productId))
-                    .forEach(id -> productWithTargetCount.merge(id, 1L, Long::sum));
-            }
+        for (Object[] row : orderRepository.countOrdersContainingProductWith(productId)) {
+            productWithTargetCount.put((Long) row[0], (Long) row[1]);
         }
         
         // Calculate confidence scores
@@ -536,7 +638,7 @@ public class RecommendationService {
      */
     // @Cacheable(value = "mlFrequentlyBoughtTogether", key = "#productId") // Disabled cache for testing
     public List<Product> getFrequentlyBoughtTogether(Long productId) {
-        Product currentProduct = productRepository.findById(productId).orElse(null);
+        Product currentProduct = catalogueService.findProduct(productId).orElse(null);
         if (currentProduct == null) {
             return new ArrayList<>();
         }
@@ -550,16 +652,14 @@ public class RecommendationService {
         }
         
         // Build co-occurrence matrix if empty (for ML scores)
-        if (coOccurrenceMatrix.isEmpty()) {
-            buildCoOccurrenceMatrix();
-        }
+        ensureModels();
         
         // Get ML scores for same-category products only
         Map<Long, Double> mlScores = new HashMap<>();
         Map<Long, Double> coOccurrences = coOccurrenceMatrix.getOrDefault(productId, new HashMap<>());
         for (Map.Entry<Long, Double> entry : coOccurrences.entrySet()) {
             if (entry.getValue() >= MIN_SUPPORT) {
-                Product p = productRepository.findById(entry.getKey()).orElse(null);
+                Product p = catalogueService.findProduct(entry.getKey()).orElse(null);
                 if (p != null) {
                     String cat = p.getCategory() != null ? p.getCategory().trim().toLowerCase() : "";
                     // Only include exact same category
@@ -570,7 +670,7 @@ public class RecommendationService {
             }
         }
         
-        List<Product> allProducts = productRepository.findAll();
+        List<Product> allProducts = catalogueService.getAllProducts();
         
         // STRICT: Get ONLY same-category products (exact match, no related categories)
         // Also exclude products with similar names (e.g., if viewing a watch, don't show other watches)
@@ -695,9 +795,7 @@ public class RecommendationService {
             return Collections.emptyList();
         }
         
-        if (coOccurrenceMatrix.isEmpty()) {
-            buildCoOccurrenceMatrix();
-        }
+        ensureModels();
         
         // Aggregate co-occurrence scores for all cart items
         Map<Long, Double> aggregatedScores = new HashMap<>();
@@ -718,7 +816,7 @@ public class RecommendationService {
         return aggregatedScores.entrySet().stream()
             .sorted((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()))
             .limit(5)
-            .map(entry -> productRepository.findById(entry.getKey()).orElse(null))
+            .map(entry -> catalogueService.findProduct(entry.getKey()).orElse(null))
             .filter(Objects::nonNull)
             .filter(p -> p.getStock() > 0)
             .collect(Collectors.toList());
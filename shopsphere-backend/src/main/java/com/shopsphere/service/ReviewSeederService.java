@@ -1,8 +1,11 @@
 package com.shopsphere.service;
 
+import com.shopsphere.config.DataSourceRouting;
+import com.shopsphere.config.DatabaseWorkload;
 import com.shopsphere.model.Review;
 import com.shopsphere.model.Product;
 import com.shopsphere.model.User;
+import com.shopsphere.repository.KeysetChunkReader;
 import com.shopsphere.repository.ReviewRepository;
 import com.shopsphere.repository.ProductRepository;
 import com.shopsphere.repository.UserRepository;
@@ -10,14 +13,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
+@DatabaseWorkload(DataSourceRouting.Workload.BATCH)
 @Order(2) // Run after DataSeederService
 public class ReviewSeederService implements CommandLineRunner {
     
@@ -30,6 +36,15 @@ public class ReviewSeederService implements CommandLineRunner {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private KeysetChunkReader keysetChunkReader;
+    
+    @Autowired
+    private ReviewService reviewService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
     private final Random random = new Random();
     
     // Realistic reviewer names
@@ -113,94 +128,27 @@ public class ReviewSeederService implements CommandLineRunner {
     @Override
     public void run(String... args) {
         try {
-            List<Product> products = productRepository.findAll();
+            long productCount = productRepository.count();
             List<User> users = userRepository.findAll();
             
-            if (products.isEmpty() || users.isEmpty()) {
+            if (productCount == 0 || users.isEmpty()) {
                 System.out.println("No products or users found, skipping review seeding.");
                 return;
             }
             
-            System.out.println("Seeding reviews for " + products.size() + " products...");
+            System.out.println("Seeding reviews for " + productCount + " products...");
             
-            int savedCount = 0;
-            int skippedCount = 0;
-            
-            // Generate reviews for each product
-            for (Product product : products) {
-                // Get existing review count for this product
-                long existingReviewsForProduct = reviewRepository.findByProductIdOrderByCreatedAtDesc(product.getId()).size();
-                
-                // Target number of reviews per product (2-3 reviews as requested)
-                int targetReviews = 2 + random.nextInt(2); // 2-3 reviews
-                
-                // Always ensure at least 2 reviews per product
-                int numReviewsToAdd = Math.max(0, (int)(targetReviews - existingReviewsForProduct));
-                
-                // If product has no reviews, add at least 2
-                if (existingReviewsForProduct == 0) {
-                    numReviewsToAdd = targetReviews;
-                }
-                
-                // Skip if product already has enough reviews
-                if (numReviewsToAdd <= 0) {
-                    continue;
-                }
-                
-                int numReviews = numReviewsToAdd;
+            AtomicInteger savedCount = new AtomicInteger();
+            AtomicInteger skippedCount = new AtomicInteger();
             
-            for (int i = 0; i < numReviews; i++) {
-                // Select a random user (or create a review with a random name)
-                User reviewer = users.get(random.nextInt(users.size()));
-                
-                // Check if this user has already reviewed this product
-                Optional<Review> existingReview = reviewRepository.findByUserIdAndProductId(reviewer.getId(), product.getId());
-                if (existingReview.isPresent()) {
-                    // Skip this review if user already reviewed this product
-                    continue;
-                }
-                
-                // Determine rating based on product category and randomness
-                int rating = generateRating(product);
-                
-                // Generate review comment based on category and rating
-                String comment = generateComment(product, rating);
-                
-                // Generate random reviewer name (or use user's name)
-                String reviewerName = reviewerNames.get(random.nextInt(reviewerNames.size()));
-                
-                // Random date within last 6 months
-                LocalDateTime reviewDate = LocalDateTime.now()
-                    .minusDays(random.nextInt(180))
-                    .minusHours(random.nextInt(24))
-                    .minusMinutes(random.nextInt(60));
-                
-                Review review = new Review();
-                review.setUser(reviewer);
-                review.setProduct(product);
-                review.setRating(rating);
-                review.setComment(comment);
-                review.setReviewerName(reviewerName);
-                review.setVerifiedPurchase(random.nextDouble() > 0.3); // 70% verified purchases
-                review.setCreatedAt(reviewDate);
-                review.setUpdatedAt(reviewDate);
-                
-                try {
-                    reviewRepository.save(review);
-                    savedCount++;
-                } catch (Exception e) {
-                    // Skip if there's a constraint violation (duplicate entry)
-                    skippedCount++;
-                    // Don't print for every skip to avoid log spam
-                    if (skippedCount % 10 == 0) {
-                        System.out.println("Skipped " + skippedCount + " duplicate reviews so far...");
-                    }
-                    continue;
+            // Generate reviews for each product, reading the catalogue in keyset chunks
+            keysetChunkReader.forEachChunk(Product.class, products -> {
+                for (Product product : products) {
+                    seedReviews(product, users, savedCount, skippedCount);
                 }
-            }
-        }
+            });
         
-            System.out.println("Review seeding completed! Saved: " + savedCount + ", Skipped: " + skippedCount);
+            System.out.println("Review seeding completed! Saved: " + savedCount.get() + ", Skipped: " + skippedCount.get());
         } catch (Exception e) {
             System.err.println("Error during review seeding: " + e.getMessage());
             e.printStackTrace();
@@ -208,6 +156,76 @@ public class ReviewSeederService implements CommandLineRunner {
         }
     }
     
+    private void seedReviews(Product product, List<User> users, AtomicInteger savedCount, AtomicInteger skippedCount) {
+        // Get existing review count for this product
+        Long reviewCount = reviewRepository.getReviewCountByProductId(product.getId());
+        long existingReviewsForProduct = reviewCount != null ? reviewCount : 0;
+        
+        // Target number of reviews per product (2-3 reviews as requested)
+        int targetReviews = 2 + random.nextInt(2); // 2-3 reviews
+        
+        // Always ensure at least 2 reviews per product
+        int numReviewsToAdd = Math.max(0, (int)(targetReviews - existingReviewsForProduct));
+        
+        // If product has no reviews, add at least 2
+        if (existingReviewsForProduct == 0) {
+            numReviewsToAdd = targetReviews;
+        }
+        
+        for (int i = 0; i < numReviewsToAdd; i++) {
+            // Select a random user (or create a review with a random name)
+            User reviewer = users.get(random.nextInt(users.size()));
+            
+            // Check if this user has already reviewed this product
+            Optional<Review> existingReview = reviewRepository.findByUserIdAndProductId(reviewer.getId(), product.getId());
+            if (existingReview.isPresent()) {
+                // Skip this review if user already reviewed this product
+                continue;
+            }
+            
+            // Determine rating based on product category and randomness
+            int rating = generateRating(product);
+            
+            // Generate review comment based on category and rating
+            String comment = generateComment(product, rating);
+            
+            // Generate random reviewer name (or use user's name)
+            String reviewerName = reviewerNames.get(random.nextInt(reviewerNames.size()));
+            
+            // Random date within last 6 months
+            LocalDateTime reviewDate = LocalDateTime.now()
+                .minusDays(random.nextInt(180))
+                .minusHours(random.nextInt(24))
+                .minusMinutes(random.nextInt(60));
+            
+            Review review = new Review();
+            review.setUser(reviewer);
+            review.setProduct(product);
+            review.setRating(rating);
+            review.setComment(comment);
+            review.setReviewerName(reviewerName);
+            review.setVerifiedPurchase(random.nextDouble() > 0.3); // 70% verified purchases
+            review.setCreatedAt(reviewDate);
+            review.setUpdatedAt(reviewDate);
+            
+            try {
+                // Review and rating aggregates commit together, as in ReviewService.createReview
+                transactionTemplate.executeWithoutResult(status -> {
+                    reviewRepository.save(review);
+                    reviewService.applyRatingChange(product.getId(), null, rating);
+                });
+                savedCount.incrementAndGet();
+            } catch (Exception e) {
+                // Skip if there's a constraint violation (duplicate entry) or the aggregate update failed
+                int skipped = skippedCount.incrementAndGet();
+                // Don't print for every skip to avoid log spam
+                if (skipped % 10 == 0) {
+                    System.out.println("Skipped " + skipped + " reviews so far (duplicates or errors), last: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
     private int generateRating(Product product) {
         // Most products should have good ratings (4-5), some average (3-4), few bad (1-3)
         double rand = random.nextDouble();
@@ -1,18 +1,23 @@
 package com.shopsphere.service;
 
+import com.shopsphere.dto.ReviewCursor;
+import com.shopsphere.dto.ReviewSummary;
+import com.shopsphere.event.ProductChangeListener;
 import com.shopsphere.model.Review;
 import com.shopsphere.model.Product;
 import com.shopsphere.model.User;
-import com.shopsphere.model.Order;
-import com.shopsphere.model.OrderItem;
 import com.shopsphere.repository.ReviewRepository;
 import com.shopsphere.repository.ProductRepository;
 import com.shopsphere.repository.UserRepository;
 import com.shopsphere.repository.OrderRepository;
+import com.shopsphere.repository.OrderArchiveRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,8 +36,62 @@ public class ReviewService {
     @Autowired
     private OrderRepository orderRepository;
     
-    public List<Review> getReviewsByProductId(Long productId) {
-        return reviewRepository.findByProductIdOrderByCreatedAtDesc(productId);
+    @Autowired
+    private OrderArchiveRepository orderArchiveRepository;
+    
+    @Autowired
+    private ProductChangeListener productChangeListener;
+    
+    /**
+     * Sort orders for a product's review pages. Each has its own keyset query and index (V6);
+     * start() is a cursor positioned before the first review.
+     */
+    public enum ReviewSort {
+        NEWEST(new ReviewCursor(null, null, END_OF_TIME, Long.MAX_VALUE)),
+        HIGHEST(new ReviewCursor(6, null, END_OF_TIME, Long.MAX_VALUE)),
+        LOWEST(new ReviewCursor(0, null, END_OF_TIME, Long.MAX_VALUE)),
+        VERIFIED(new ReviewCursor(null, true, END_OF_TIME, Long.MAX_VALUE));
+        
+        private final ReviewCursor start;
+        
+        ReviewSort(ReviewCursor start) {
+            this.start = start;
+        }
+        
+        public ReviewCursor start() {
+            return start;
+        }
+        
+        public static ReviewSort from(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown review sort: " + value);
+            }
+        }
+    }
+    
+    // Later than any stored review, and still within MySQL's DATETIME range
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+    
+    public List<ReviewSummary> getReviewsByProductId(Long productId) {
+        return reviewRepository.findSummariesByProductId(productId);
+    }
+    
+    /**
+     * One page of a product's reviews in the given order, starting after the cursor (or at the
+     * top without one). A keyset query over the sort's index, so every page costs the same
+     * regardless of how deep the reader has scrolled.
+     */
+    public Slice<ReviewSummary> getReviewPage(Long productId, ReviewSort sort, String cursor, int size) {
+        ReviewCursor after = cursor != null && !cursor.isBlank() ? ReviewCursor.decode(cursor) : sort.start();
+        PageRequest page = PageRequest.of(0, size);
+        return switch (sort) {
+            case NEWEST -> reviewRepository.findNewestPage(productId, after.createdAt(), after.id(), page);
+            case HIGHEST -> reviewRepository.findHighestRatedPage(productId, after.rating(), after.createdAt(), after.id(), page);
+            case LOWEST -> reviewRepository.findLowestRatedPage(productId, after.rating(), after.createdAt(), after.id(), page);
+            case VERIFIED -> reviewRepository.findVerifiedFirstPage(productId, after.verifiedPurchase(), after.createdAt(), after.id(), page);
+        };
     }
     
     public List<Review> getReviewsByUserId(Long userId) {
@@ -47,6 +106,8 @@ public class ReviewService {
             throw new RuntimeException("You have already reviewed this product");
         }
         
+        validateRating(rating);
+        
         // Allow any logged-in user to review (removed purchase requirement)
         boolean hasPurchased = hasUserPurchasedProduct(userId, productId);
         
@@ -67,7 +128,7 @@ public class ReviewService {
         Review savedReview = reviewRepository.save(review);
         
         // Update product rating and review count
-        updateProductRating(productId);
+        applyRatingChange(productId, null, rating);
         
         return savedReview;
     }
@@ -81,13 +142,15 @@ public class ReviewService {
             throw new RuntimeException("You can only update your own reviews");
         }
         
+        validateRating(rating);
+        Integer previousRating = review.getRating();
         review.setRating(rating);
         review.setComment(comment);
         
         Review updatedReview = reviewRepository.save(review);
         
         // Update product rating
-        updateProductRating(review.getProduct().getId());
+        applyRatingChange(review.getProduct().getId(), previousRating, rating);
         
         return updatedReview;
     }
@@ -102,38 +165,52 @@ public class ReviewService {
         }
         
         Long productId = review.getProduct().getId();
+        Integer previousRating = review.getRating();
         reviewRepository.delete(review);
         
         // Update product rating
-        updateProductRating(productId);
+        applyRatingChange(productId, previousRating, null);
     }
     
     private boolean hasUserPurchasedProduct(Long userId, Long productId) {
-        List<Order> orders = orderRepository.findByUserId(userId);
-        for (Order order : orders) {
-            if (order.getStatus() == Order.OrderStatus.DELIVERED) {
-                for (OrderItem item : order.getOrderItems()) {
-                    if (item.getProduct().getId().equals(productId)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        // Purchases old enough to be archived still count as verified
+        return orderRepository.hasDeliveredOrderContaining(userId, productId)
+            || orderArchiveRepository.hasDeliveredOrderContaining(userId, productId);
     }
     
+    /**
+     * Moves one review's rating out of and/or into the product's rating aggregates with a single
+     * atomic UPDATE in the caller's transaction (null for a created or deleted review's missing side),
+     * instead of re-averaging every review of the product.
+     */
     @Transactional
-    private void updateProductRating(Long productId) {
-        Double avgRating = reviewRepository.getAverageRatingByProductId(productId);
-        Long reviewCount = reviewRepository.getReviewCountByProductId(productId);
-        
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Product not found"));
-        
-        product.setRating(avgRating != null ? avgRating : 0.0);
-        product.setReviewCount(reviewCount != null ? reviewCount.intValue() : 0);
+    public void applyRatingChange(Long productId, Integer removedRating, Integer addedRating) {
+        int removed = removedRating != null ? removedRating : 0;
+        int added = addedRating != null ? addedRating : 0;
+        int updated = productRepository.applyRatingDelta(productId,
+            added - removed,
+            Integer.signum(added) - Integer.signum(removed),
+            starDelta(1, removed, added),
+            starDelta(2, removed, added),
+            starDelta(3, removed, added),
+            starDelta(4, removed, added),
+            starDelta(5, removed, added));
+        if (updated == 0) {
+            throw new RuntimeException("Product not found");
+        }
         
-        productRepository.save(product);
+        // The aggregates are written outside Hibernate, so refresh caches and the catalogue explicitly
+        productChangeListener.productsChanged(List.of(productId));
+    }
+    
+    private static int starDelta(int stars, int removed, int added) {
+        return (added == stars ? 1 : 0) - (removed == stars ? 1 : 0);
+    }
+    
+    private static void validateRating(Integer rating) {
+        if (rating == null || rating < 1 || rating > 5) {
+            throw new RuntimeException("Rating must be between 1 and 5");
+        }
     }
     
     public boolean canUserReview(Long userId, Long productId) {
@@ -0,0 +1,147 @@
+package com.shopsphere.service;
+
+import com.shopsphere.config.DataSourceRouting;
+import com.shopsphere.config.DatabaseWorkload;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Decides which scheduled work this instance does when several run side by side.
+ * 
+ * Every node heartbeats a "node:" lease. One node holds the leader lease and runs the
+ * singleton jobs (outbox dispatch, model rebuilds, purges). Order status polling is split
+ * into shopsphere.scheduling.order-partitions hash partitions of the order id, each guarded
+ * by its own lease; a node claims at most its fair share (partitions / live nodes), so
+ * work spreads evenly and a dead node's partitions are taken over once its leases expire.
+ */
+@Service
+@DatabaseWorkload(DataSourceRouting.Workload.BATCH)
+public class SchedulerCoordinator {
+    
+    public static final String ORDER_TRANSITIONS = "order-transitions";
+    
+    private static final Duration LEASE_TTL = Duration.ofSeconds(30);
+    private static final String NODE_PREFIX = "node:";
+    private static final String LEADER_LEASE = "scheduler-leader";
+    
+    @Autowired
+    private LeaseManager leaseManager;
+    
+    @Value("${shopsphere.scheduling.order-partitions:1}")
+    private int orderPartitions;
+    
+    @Value("${shopsphere.scheduling.node-id:}")
+    private String configuredNodeId;
+    
+    private String nodeId;
+    private volatile boolean leader;
+    private volatile Set<Integer> ownedPartitions = Collections.emptySet();
+    
+    @PostConstruct
+    public void init() {
+        if (configuredNodeId != null && !configuredNodeId.isBlank()) {
+            nodeId = configuredNodeId;
+        } else {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "node";
+            }
+            nodeId = host + "-" + ManagementFactory.getRuntimeMXBean().getPid();
+        }
+        orderPartitions = Math.max(1, orderPartitions);
+        System.out.println("🧭 Scheduler node id: " + nodeId + " (" + orderPartitions + " order partitions)");
+    }
+    
+    /**
+     * Renew this node's leases and rebalance order partitions. Runs well inside the lease
+     * TTL; on any error the node steps back from all work until the next heartbeat.
+     */
+    @Scheduled(fixedDelay = 10000)
+    public synchronized void heartbeat() {
+        try {
+            leaseManager.tryAcquire(NODE_PREFIX + nodeId, nodeId, LEASE_TTL);
+            boolean wasLeader = leader;
+            leader = leaseManager.tryAcquire(LEADER_LEASE, nodeId, LEASE_TTL);
+            if (leader != wasLeader) {
+                System.out.println(leader ? "👑 " + nodeId + " is now scheduler leader" : "ℹ️  " + nodeId + " is no longer scheduler leader");
+            }
+            ownedPartitions = rebalance();
+        } catch (Exception e) {
+            leader = false;
+            ownedPartitions = Collections.emptySet();
+            System.err.println("⚠️ Scheduler lease heartbeat failed: " + e.getMessage());
+        }
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    public boolean isLeader() {
+        return leader;
+    }
+    
+    public int getOrderPartitions() {
+        return orderPartitions;
+    }
+    
+    public Set<Integer> getOwnedPartitions() {
+        return ownedPartitions;
+    }
+    
+    public boolean ownsOrder(long orderId) {
+        return ownedPartitions.contains((int) Math.floorMod(orderId, (long) orderPartitions));
+    }
+    
+    private Set<Integer> rebalance() {
+        int liveNodes = Math.max(1, leaseManager.countActive(NODE_PREFIX));
+        int fairShare = (orderPartitions + liveNodes - 1) / liveNodes;
+        Set<Integer> previouslyOwned = ownedPartitions;
+        
+        Set<Integer> owned = new TreeSet<>();
+        for (int partition : preferenceOrder(previouslyOwned)) {
+            String lease = ORDER_TRANSITIONS + "-p" + partition;
+            if (owned.size() >= fairShare) {
+                // Hand surplus partitions back so newly joined nodes can pick them up
+                if (previouslyOwned.contains(partition)) {
+                    leaseManager.release(lease, nodeId);
+                }
+                continue;
+            }
+            if (leaseManager.tryAcquire(lease, nodeId, LEASE_TTL)) {
+                owned.add(partition);
+            }
+        }
+        if (!owned.equals(previouslyOwned)) {
+            System.out.println("🧭 " + nodeId + " now owns order partitions " + owned + " of " + orderPartitions);
+        }
+        return Collections.unmodifiableSet(owned);
+    }
+    
+    // Keep what we hold, then try the rest in an order that differs per node (rendezvous hashing)
+    private List<Integer> preferenceOrder(Set<Integer> previouslyOwned) {
+        List<Integer> partitions = new ArrayList<>(orderPartitions);
+        for (int i = 0; i < orderPartitions; i++) {
+            partitions.add(i);
+        }
+        partitions.sort(Comparator
+            .comparing((Integer partition) -> !previouslyOwned.contains(partition))
+            .thenComparingInt(partition -> (nodeId + ":" + partition).hashCode()));
+        return partitions;
+    }
+}
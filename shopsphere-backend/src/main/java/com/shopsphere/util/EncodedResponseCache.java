@@ -0,0 +1,118 @@
+package com.shopsphere.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Holds the already-serialized JSON bytes, plain and gzip-compressed, of hot catalogue responses.
+ *
+ * Each entry is tied to the version it was built from (the catalogue ETag); a request
+ * carrying a different version rebuilds the entry, so nothing needs explicit eviction.
+ * Callers write the returned arrays straight to the response without copying them.
+ */
+@Component
+public class EncodedResponseCache {
+    
+    // Keys are fixed endpoints plus one per existing category; the cap is a backstop only
+    private static final int MAX_ENTRIES = 256;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private final Map<String, EncodedResponse> entries = new ConcurrentHashMap<>();
+    
+    public record EncodedResponse(String version, byte[] identity, byte[] gzip) {
+    }
+    
+    public EncodedResponse get(String key, String version, Supplier<?> body) {
+        EncodedResponse cached = entries.get(key);
+        if (cached != null && cached.version().equals(version)) {
+            return cached;
+        }
+        EncodedResponse encoded = encode(version, body.get());
+        if (entries.size() >= MAX_ENTRIES && !entries.containsKey(key)) {
+            entries.clear();
+        }
+        entries.put(key, encoded);
+        return encoded;
+    }
+    
+    /**
+     * Encodes a response without keeping it, for keys that are not worth an entry
+     * (a category the catalogue does not have).
+     */
+    public EncodedResponse encodeUncached(String version, Supplier<?> body) {
+        return encode(version, body.get());
+    }
+    
+    private EncodedResponse encode(String version, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new EncodedResponse(version, json, gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response body", e);
+        }
+    }
+    
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * True if the Accept-Encoding header allows gzip. An explicit gzip entry decides, also when
+     * it refuses gzip with q=0; otherwise a "*" entry does.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipWeight = null;
+        Double anyWeight = null;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim();
+            if (coding.equalsIgnoreCase("gzip")) {
+                gzipWeight = weight(parts);
+            } else if (coding.equals("*")) {
+                anyWeight = weight(parts);
+            }
+        }
+        double weight = gzipWeight != null ? gzipWeight : anyWeight != null ? anyWeight : 0.0;
+        return weight > 0.0;
+    }
+    
+    private static double weight(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim().replace(" ", "");
+            if (param.startsWith("q=")) {
+                return qValue(param.substring(2));
+            }
+        }
+        return 1.0;
+    }
+    
+    // A malformed weight is ignored, i.e. treated as the default q=1
+    private static double qValue(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 1.0;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.shopsphere.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: a ring of slots, one per tick, holding items by deadline. Scheduling
+ * is O(1) and each tick only looks at one slot, so thousands of pending timers cost a
+ * single thread and no polling. Deadlines further out than one rotation simply stay in
+ * their slot until the tick that owns them comes round.
+ *
+ * Everything that expires on a tick is handed to the consumer as one batch, on the ticker
+ * thread; consumers should hand the batch off rather than do slow work inline.
+ */
+public class HashedTimingWheel<T> {
+    
+    private record Entry<T>(T item, long deadlineTick) {
+    }
+    
+    private final long tickMillis;
+    private final List<List<Entry<T>>> slots;
+    private final Consumer<List<T>> onExpired;
+    private final long startMillis;
+    private final ScheduledExecutorService ticker;
+    
+    private long currentTick;
+    private int size;
+    
+    public HashedTimingWheel(String name, long tickMillis, int slotCount, Consumer<List<T>> onExpired) {
+        this.tickMillis = tickMillis;
+        this.onExpired = onExpired;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.startMillis = System.currentTimeMillis();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public void start() {
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    public void stop() {
+        ticker.shutdownNow();
+    }
+    
+    /** Schedule item to expire at the given epoch millis; past deadlines expire on the next tick. */
+    public synchronized void schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.max(currentTick + 1, Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis));
+        slots.get((int) (deadlineTick % slots.size())).add(new Entry<>(item, deadlineTick));
+        size++;
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    private void tick() {
+        List<T> expired = new ArrayList<>();
+        synchronized (this) {
+            // Catch up if the ticker thread was delayed
+            long targetTick = (System.currentTimeMillis() - startMillis) / tickMillis;
+            while (currentTick < targetTick) {
+                currentTick++;
+                Iterator<Entry<T>> iterator = slots.get((int) (currentTick % slots.size())).iterator();
+                while (iterator.hasNext()) {
+                    Entry<T> entry = iterator.next();
+                    if (entry.deadlineTick() <= currentTick) {
+                        expired.add(entry.item());
+                        iterator.remove();
+                        size--;
+                    }
+                }
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        try {
+            onExpired.accept(expired);
+        } catch (Exception e) {
+            // Never let a failing consumer kill the ticker
+            System.err.println("⚠️ Timing wheel consumer failed: " + e.getMessage());
+        }
+    }
+}
@@ -58,6 +58,25 @@ public class JwtUtil {
         }
     }
     
+    public String getRoleFromToken(String token) {
+        try {
+            if (token != null && token.startsWith("Bearer ")) {
+                token = token.substring(7);
+            }
+            
+            Claims claims = Jwts.parser()
+                .verifyWith(getSigningKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+            
+            Object role = claims.get("role");
+            return role != null ? role.toString() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
     public boolean validateToken(String token) {
         try {
             if (token != null && token.startsWith("Bearer ")) {
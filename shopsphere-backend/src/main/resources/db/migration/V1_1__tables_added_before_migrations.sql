@@ -0,0 +1,70 @@
+-- Tables, columns and indexes that were added while the schema was still managed by
+-- ddl-auto=update. A database created back then is baselined at V1 and may or may not have
+-- them yet, so every statement here checks first. MySQL has no ADD COLUMN / CREATE INDEX
+-- IF NOT EXISTS; those go through information_schema and a prepared statement.
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    event_type VARCHAR(100) NOT NULL,
+    aggregate_id BIGINT,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT,
+    next_attempt_at DATETIME(6) NOT NULL,
+    last_error VARCHAR(1000),
+    created_at DATETIME(6),
+    processed_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS idempotency_records (
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    response_status INT,
+    response_body MEDIUMTEXT,
+    created_at DATETIME(6),
+    PRIMARY KEY (idempotency_key)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS scheduler_leases (
+    name VARCHAR(100) NOT NULL,
+    owner VARCHAR(100) NOT NULL,
+    expires_at DATETIME(3) NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+-- Due time of the next automatic status change (backfilled by V2)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'orders' AND column_name = 'next_transition_at') = 0,
+    'ALTER TABLE orders ADD COLUMN next_transition_at DATETIME(6)', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'orders' AND index_name = 'idx_orders_next_transition_at') = 0,
+    'CREATE INDEX idx_orders_next_transition_at ON orders (next_transition_at)', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'orders' AND index_name = 'idx_orders_user_created') = 0,
+    'CREATE INDEX idx_orders_user_created ON orders (user_id, created_at)', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'outbox_events' AND index_name = 'idx_outbox_status_next_attempt') = 0,
+    'CREATE INDEX idx_outbox_status_next_attempt ON outbox_events (status, next_attempt_at)', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'idempotency_records' AND index_name = 'idx_idempotency_created_at') = 0,
+    'CREATE INDEX idx_idempotency_created_at ON idempotency_records (created_at)', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,124 @@
+-- Baseline schema, equivalent to what Hibernate's ddl-auto=update produced before migrations
+-- were introduced. Existing databases are baselined at this version (spring.flyway.baseline-on-migrate)
+-- and only run the later scripts.
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    phone VARCHAR(255),
+    address VARCHAR(255),
+    city VARCHAR(255),
+    zip_code VARCHAR(255),
+    country VARCHAR(255),
+    role VARCHAR(20),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE products (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(1000),
+    price DECIMAL(10, 2) NOT NULL,
+    image_url VARCHAR(255),
+    category VARCHAR(255),
+    stock INT,
+    rating DOUBLE,
+    review_count INT,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE product_associations (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    product_id BIGINT NOT NULL,
+    associated_product_id BIGINT NOT NULL,
+    association_strength DOUBLE NOT NULL,
+    type VARCHAR(30),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_product_associations_product FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT fk_product_associations_associated FOREIGN KEY (associated_product_id) REFERENCES products (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE cart (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_cart_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_cart_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE wishlist (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_wishlist_user_product UNIQUE (user_id, product_id),
+    CONSTRAINT fk_wishlist_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_wishlist_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE orders (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    total_amount DECIMAL(10, 2) NOT NULL,
+    status VARCHAR(20),
+    shipping_address VARCHAR(255),
+    payment_method VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    pending_date DATETIME(6),
+    confirmed_date DATETIME(6),
+    picked_up_date DATETIME(6),
+    in_transit_date DATETIME(6),
+    out_for_delivery_date DATETIME(6),
+    delivered_date DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE order_items (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT,
+    price DECIMAL(10, 2) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE order_status_history (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    order_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    status_date DATETIME(6) NOT NULL,
+    description VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_status_history_order FOREIGN KEY (order_id) REFERENCES orders (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE reviews (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    rating INT NOT NULL,
+    comment VARCHAR(1000),
+    reviewer_name VARCHAR(255),
+    verified_purchase BIT,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_reviews_user_product UNIQUE (user_id, product_id),
+    CONSTRAINT fk_reviews_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_reviews_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,29 @@
+-- One-off fixes that DatabaseMigrationService and OrderStatusUpdateService used to run on every boot.
+-- Apart from seeding id_generators, all of them are no-ops on a fresh database.
+
+-- Hibernate created enum status columns too narrow for OUT_FOR_DELIVERY
+ALTER TABLE orders MODIFY COLUMN status VARCHAR(20);
+ALTER TABLE order_status_history MODIFY COLUMN status VARCHAR(20) NOT NULL;
+
+-- Start the pooled generators past the ids already handed out by AUTO_INCREMENT, keeping any higher value.
+-- The AUTO_INCREMENT attribute on orders.id and order_items.id stays: inserts now always supply the id.
+CREATE TABLE IF NOT EXISTS id_generators (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+) ENGINE = InnoDB;
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'orders', COALESCE(MAX(id), 0) + 51 FROM orders
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'order_items', COALESCE(MAX(id), 0) + 51 FROM order_items
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+-- Due time of the next automatic status change for orders placed before next_transition_at existed
+UPDATE orders SET next_transition_at = DATE_ADD(created_at, INTERVAL
+    CASE status WHEN 'PENDING' THEN 2 WHEN 'CONFIRMED' THEN 5 WHEN 'PICKED_UP' THEN 10
+    WHEN 'IN_TRANSIT' THEN 15 ELSE 20 END MINUTE)
+WHERE next_transition_at IS NULL
+  AND status IN ('PENDING', 'CONFIRMED', 'PICKED_UP', 'IN_TRANSIT', 'OUT_FOR_DELIVERY');
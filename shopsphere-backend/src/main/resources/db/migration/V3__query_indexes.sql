@@ -0,0 +1,31 @@
+-- Indexes for the repository queries on hot paths. Composite indexes are ordered as
+-- equality columns first, then the sort or range column; InnoDB appends the primary key,
+-- so (user_id, created_at) also serves ORDER BY created_at DESC, id DESC.
+
+-- Order history pages already use idx_orders_user_created (V1_1)
+-- Recommendation builds and cancellation filters
+CREATE INDEX idx_orders_status ON orders (status);
+-- Best sellers since a given time (cache warm-up)
+CREATE INDEX idx_orders_created_at ON orders (created_at);
+-- Verified-purchase check and best-seller aggregation join order_items by product
+CREATE INDEX idx_order_items_product_order ON order_items (product_id, order_id);
+CREATE INDEX idx_order_status_history_order_date ON order_status_history (order_id, status_date);
+
+-- Review listings per product and per user, newest first
+CREATE INDEX idx_reviews_product_created ON reviews (product_id, created_at);
+CREATE INDEX idx_reviews_user_created ON reviews (user_id, created_at);
+
+-- Cart lookups by user, and by user and product when adding to the cart
+CREATE INDEX idx_cart_user_product ON cart (user_id, product_id);
+
+-- Category listings, top-rated (rating order, stock filtered in the index), name lookups
+-- by the seeders, and the catalogue snapshot's incremental refresh
+CREATE INDEX idx_products_category ON products (category);
+CREATE INDEX idx_products_rating_stock ON products (rating, stock);
+CREATE INDEX idx_products_name ON products (name);
+CREATE INDEX idx_products_updated_at ON products (updated_at);
+
+CREATE INDEX idx_product_associations_product_strength ON product_associations (product_id, association_strength);
+
+-- Purge of processed outbox events
+CREATE INDEX idx_outbox_status_processed ON outbox_events (status, processed_at);
@@ -0,0 +1,46 @@
+-- Cold storage for finished orders, filled by OrderArchiveService. Same columns as the hot
+-- tables plus archived_at; no foreign keys so archived rows can be moved in bulk.
+
+CREATE TABLE orders_archive (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    total_amount DECIMAL(10, 2) NOT NULL,
+    status VARCHAR(20),
+    shipping_address VARCHAR(255),
+    payment_method VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    pending_date DATETIME(6),
+    confirmed_date DATETIME(6),
+    picked_up_date DATETIME(6),
+    in_transit_date DATETIME(6),
+    out_for_delivery_date DATETIME(6),
+    delivered_date DATETIME(6),
+    archived_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_orders_archive_user_created (user_id, created_at)
+) ENGINE = InnoDB;
+
+CREATE TABLE order_items_archive (
+    id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT,
+    price DECIMAL(10, 2) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_order_items_archive_order (order_id),
+    INDEX idx_order_items_archive_product_order (product_id, order_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE order_status_history_archive (
+    id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    status_date DATETIME(6) NOT NULL,
+    description VARCHAR(255),
+    PRIMARY KEY (id),
+    INDEX idx_order_status_history_archive_order (order_id, status_date)
+) ENGINE = InnoDB;
+
+-- Finds archival candidates without scanning every finished order
+CREATE INDEX idx_orders_status_created ON orders (status, created_at);
@@ -0,0 +1,34 @@
+-- Running rating aggregates on products, maintained per review write by
+-- ProductRepository.applyRatingDelta instead of re-averaging all reviews.
+
+ALTER TABLE products
+    ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN one_star_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN two_star_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN three_star_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN four_star_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN five_star_count INT NOT NULL DEFAULT 0;
+
+-- Backfill from existing reviews. Products without reviews keep their seeded rating and
+-- review_count until their first review, as before.
+UPDATE products p
+JOIN (
+    SELECT product_id,
+           SUM(rating) AS rating_sum,
+           COUNT(*) AS review_count,
+           SUM(rating = 1) AS one_star_count,
+           SUM(rating = 2) AS two_star_count,
+           SUM(rating = 3) AS three_star_count,
+           SUM(rating = 4) AS four_star_count,
+           SUM(rating = 5) AS five_star_count
+    FROM reviews
+    GROUP BY product_id
+) r ON r.product_id = p.id
+SET p.rating_sum = r.rating_sum,
+    p.one_star_count = r.one_star_count,
+    p.two_star_count = r.two_star_count,
+    p.three_star_count = r.three_star_count,
+    p.four_star_count = r.four_star_count,
+    p.five_star_count = r.five_star_count,
+    p.review_count = r.review_count,
+    p.rating = r.rating_sum / r.review_count;
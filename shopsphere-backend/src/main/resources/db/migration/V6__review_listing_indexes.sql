@@ -0,0 +1,18 @@
+-- Keyset-paginated review listings (ReviewRepository.find*Page). Each sort order has a
+-- composite index whose column order and direction match its ORDER BY, with the primary
+-- key appended by InnoDB as the tie-breaker, so a page is a bounded index range scan.
+-- Newest first keeps using idx_reviews_product_created (V3).
+
+-- Keyset predicates compare these columns directly, so they must not be NULL
+UPDATE reviews SET verified_purchase = FALSE WHERE verified_purchase IS NULL;
+UPDATE reviews SET created_at = COALESCE(updated_at, NOW(6)) WHERE created_at IS NULL;
+ALTER TABLE reviews
+    MODIFY verified_purchase BIT NOT NULL DEFAULT FALSE,
+    MODIFY created_at DATETIME(6) NOT NULL;
+
+-- Highest rated: rating DESC, created_at DESC, id DESC (backward scan)
+CREATE INDEX idx_reviews_product_rating_created ON reviews (product_id, rating, created_at);
+-- Lowest rated: rating ASC, created_at DESC, id ASC (forward scan; descending key part needs MySQL 8)
+CREATE INDEX idx_reviews_product_rating_asc_created ON reviews (product_id, rating, created_at DESC);
+-- Verified purchases first: verified_purchase DESC, created_at DESC, id DESC (backward scan)
+CREATE INDEX idx_reviews_product_verified_created ON reviews (product_id, verified_purchase, created_at);
@@ -0,0 +1,97 @@
+package com.shopsphere.controller;
+
+import com.shopsphere.model.Order;
+import com.shopsphere.model.Product;
+import com.shopsphere.model.User;
+import com.shopsphere.support.EndpointTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Statement budgets for the read endpoints with a known fetch plan. The fixture gives
+ * every collection several rows, so an N+1 pushes the count past the budget.
+ */
+class EndpointSqlBudgetTest extends EndpointTestSupport {
+
+    private User buyer;
+    private Product product;
+    private Order order;
+
+    @BeforeEach
+    void createFixture() {
+        buyer = createUser();
+        User[] reviewers = {buyer, createUser(), createUser(), createUser()};
+        product = createProduct("Electronics");
+        Product second = createProduct("Electronics");
+        Product third = createProduct("Books");
+
+        order = createOrder(buyer, Order.OrderStatus.DELIVERED, product, second, third);
+        createOrder(buyer, Order.OrderStatus.PENDING, second, third);
+        createOrder(buyer, Order.OrderStatus.CONFIRMED, product);
+        for (int i = 0; i < reviewers.length; i++) {
+            createReview(reviewers[i], product, 1 + i);
+            createReview(reviewers[i], third, 5 - i);
+        }
+    }
+
+    @Test
+    void productListing() throws Exception {
+        assertWithinBudget("GET /products", 2, get("/products"));
+    }
+
+    @Test
+    void productDetail() throws Exception {
+        assertWithinBudget("GET /products/{id}", 2, get("/products/{id}", product.getId()));
+    }
+
+    @Test
+    void productsByCategory() throws Exception {
+        assertWithinBudget("GET /products/category/{category}", 2, get("/products/category/{category}", "Electronics"));
+    }
+
+    @Test
+    void orderDetail() throws Exception {
+        assertWithinBudget("GET /orders/{id}", 3, get("/orders/{id}", order.getId()));
+    }
+
+    @Test
+    void orderHistoryByUser() throws Exception {
+        assertWithinBudget("GET /orders/user/{userId}", 1, get("/orders/user/{userId}", buyer.getId()));
+    }
+
+    @Test
+    void myOrders() throws Exception {
+        assertWithinBudget("GET /orders/my-orders", 1,
+            get("/orders/my-orders").header("Authorization", bearerToken(buyer)));
+    }
+
+    @Test
+    void productReviews() throws Exception {
+        assertWithinBudget("GET /reviews/product/{productId}", 1, get("/reviews/product/{productId}", product.getId()));
+    }
+
+    @Test
+    void productReviewPage() throws Exception {
+        assertWithinBudget("GET /reviews/product/{productId}/page", 1,
+            get("/reviews/product/{productId}/page", product.getId()).param("sort", "highest").param("size", "2"));
+    }
+
+    @Test
+    void reviewsByUser() throws Exception {
+        assertWithinBudget("GET /reviews/user/{userId}", 1, get("/reviews/user/{userId}", buyer.getId()));
+    }
+
+    @Test
+    void canReview() throws Exception {
+        assertWithinBudget("GET /reviews/can-review/{productId}", 1,
+            get("/reviews/can-review/{productId}", createProduct("Books").getId()).header("Authorization", bearerToken(buyer)));
+    }
+
+    @Test
+    void canReviewAlreadyReviewed() throws Exception {
+        assertWithinBudget("GET /reviews/can-review/{productId}", 1,
+            get("/reviews/can-review/{productId}", product.getId()).header("Authorization", bearerToken(buyer)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.shopsphere.controller;
+
+import com.shopsphere.model.Order;
+import com.shopsphere.model.Product;
+import com.shopsphere.model.User;
+import com.shopsphere.support.EndpointTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+/**
+ * Exact statement counts for the endpoints backed by the named entity graphs and
+ * projections: each must stay one query however many rows the fixture adds, and still
+ * render the associations it promises.
+ */
+class FetchPlanTest extends EndpointTestSupport {
+
+    private User buyer;
+    private Product phone;
+    private Product cable;
+    private Order order;
+
+    @BeforeEach
+    void createFixture() {
+        buyer = createUser();
+        phone = createProduct("Electronics");
+        cable = createProduct("Electronics");
+        order = createOrder(buyer, Order.OrderStatus.DELIVERED, phone, cable);
+        for (int i = 0; i < 5; i++) {
+            createOrder(buyer, Order.OrderStatus.PENDING, phone, cable, createProduct("Books"));
+        }
+        createReview(buyer, phone, 5);
+        createReview(buyer, cable, 3);
+        createReview(createUser(), phone, 4);
+    }
+
+    @Test
+    void orderDetailLoadsItemsAndProductsInOneQuery() throws Exception {
+        assertEquals(1, measure(get("/orders/{id}", order.getId())).statements());
+
+        mockMvc.perform(get("/orders/{id}", order.getId()))
+            .andExpect(jsonPath("$.orderItems", hasSize(2)))
+            .andExpect(jsonPath("$.orderItems[*].product.name", containsInAnyOrder(phone.getName(), cable.getName())));
+    }
+
+    @Test
+    void orderHistoryIsOneQueryForAnyNumberOfOrders() throws Exception {
+        assertEquals(1, measure(get("/orders/user/{userId}", buyer.getId())).statements());
+
+        mockMvc.perform(get("/orders/user/{userId}", buyer.getId()))
+            .andExpect(jsonPath("$.orders", hasSize(6)));
+    }
+
+    @Test
+    void userReviewsDoNotLoadUsersOrProducts() throws Exception {
+        assertEquals(1, measure(get("/reviews/user/{userId}", buyer.getId())).statements());
+
+        mockMvc.perform(get("/reviews/user/{userId}", buyer.getId()))
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[*].productId", containsInAnyOrder(phone.getId().intValue(), cable.getId().intValue())));
+    }
+
+    @Test
+    void productReviewsAreOneProjectionQuery() throws Exception {
+        assertEquals(1, measure(get("/reviews/product/{productId}", phone.getId())).statements());
+
+        mockMvc.perform(get("/reviews/product/{productId}", phone.getId()))
+            .andExpect(jsonPath("$", hasSize(2)))
+            // Public listing: authors appear by reviewerName only
+            .andExpect(jsonPath("$[0].userId").doesNotExist());
+    }
+}
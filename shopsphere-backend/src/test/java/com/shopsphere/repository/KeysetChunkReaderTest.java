@@ -0,0 +1,122 @@
+package com.shopsphere.repository;
+
+import com.shopsphere.model.Order;
+import com.shopsphere.model.OrderItem;
+import com.shopsphere.model.Product;
+import com.shopsphere.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The reader runs inside the caller's transaction (DataJpaTest wraps each test in one) and
+ * must neither detach nor flush the caller's entities, while still seeing its writes.
+ */
+@DataJpaTest(properties = {
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "shopsphere.batch.chunk-size=2"
+})
+@Import(KeysetChunkReader.class)
+class KeysetChunkReaderTest {
+
+    @Autowired
+    private KeysetChunkReader reader;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void createProducts() {
+        for (int i = 1; i <= 5; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(BigDecimal.valueOf(10L * i));
+            product.setCategory(i % 2 == 0 ? "Even" : "Odd");
+            product.setStock(10);
+            entityManager.persist(product);
+            products.add(product);
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void readsEveryRowInIdOrderAcrossChunks() {
+        List<Long> seen = new ArrayList<>();
+        List<Integer> chunkSizes = new ArrayList<>();
+        long read = reader.forEachChunk(Product.class, chunk -> {
+            chunkSizes.add(chunk.size());
+            chunk.forEach(product -> seen.add(product.getId()));
+        });
+
+        assertEquals(5, read);
+        assertEquals(products.stream().map(Product::getId).toList(), seen);
+        assertEquals(List.of(2, 2, 1), chunkSizes);
+    }
+
+    @Test
+    void appliesTheCondition() {
+        List<String> names = new ArrayList<>();
+        reader.forEachChunk(KeysetChunkReader.Query.of(Product.class).where("e.category = :category", Map.of("category", "Even")),
+            chunk -> chunk.forEach(product -> names.add(product.getName())));
+
+        assertEquals(List.of("Product 2", "Product 4"), names);
+    }
+
+    @Test
+    void leavesTheCallersPersistenceContextAlone() {
+        Product managed = products.get(0);
+        managed.setName("Renamed, not flushed yet");
+
+        List<Product> handed = new ArrayList<>();
+        reader.forEachChunk(Product.class, handed::addAll);
+
+        assertTrue(entityManager.contains(managed), "caller's entity must stay managed");
+        assertFalse(handed.stream().anyMatch(entityManager::contains), "reader results are detached");
+        // The unflushed change was not flushed by the reader, so it read the committed name
+        assertEquals("Product 1", handed.get(0).getName());
+    }
+
+    @Test
+    void fetchesTheEntityGraph() {
+        User user = new User();
+        user.setEmail("reader@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setTotalAmount(BigDecimal.TEN);
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(products.get(1));
+        item.setQuantity(1);
+        item.setPrice(BigDecimal.TEN);
+        order.setOrderItems(new ArrayList<>(List.of(item)));
+        entityManager.persist(order);
+        entityManager.flush();
+
+        List<Order> orders = new ArrayList<>();
+        reader.forEachChunk(KeysetChunkReader.Query.of(Order.class).fetch(Order.SUMMARY_GRAPH), orders::addAll);
+
+        assertEquals(1, orders.size());
+        assertTrue(Hibernate.isInitialized(orders.get(0).getOrderItems()));
+        assertEquals(products.get(1).getId(), orders.get(0).getOrderItems().get(0).getProduct().getId());
+    }
+}
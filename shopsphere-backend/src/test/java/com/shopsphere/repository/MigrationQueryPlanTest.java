@@ -0,0 +1,185 @@
+package com.shopsphere.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs db/migration against a real MySQL: on an empty database, and on databases that
+ * ddl-auto=update created before migrations existed (baselined at V1, as
+ * spring.flyway.baseline-on-migrate does). On the migrated schema the hot repository
+ * queries must pick the index added for them. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MigrationQueryPlanTest {
+
+    private record ExpectedPlan(String table, String index, String sql) {
+    }
+
+    private static final List<ExpectedPlan> HOT_QUERIES = List.of(
+        new ExpectedPlan("orders", "idx_orders_user_created",
+            "SELECT id, status, total_amount, created_at FROM orders WHERE user_id = 1 ORDER BY created_at DESC, id DESC LIMIT 21"),
+        new ExpectedPlan("orders", "idx_orders_next_transition_at",
+            "SELECT id, status, created_at, next_transition_at FROM orders WHERE next_transition_at <= NOW() ORDER BY next_transition_at LIMIT 500"),
+        new ExpectedPlan("order_items", "idx_order_items_product_order",
+            "SELECT COUNT(*) FROM order_items oi JOIN orders o ON o.id = oi.order_id WHERE oi.product_id = 1 AND o.user_id = 1 AND o.status = 'DELIVERED'"),
+        new ExpectedPlan("reviews", "idx_reviews_product_created",
+            "SELECT id, rating, comment, created_at FROM reviews WHERE product_id = 1 ORDER BY created_at DESC"),
+        new ExpectedPlan("reviews", "idx_reviews_product_rating_created",
+            "SELECT id, rating, comment, created_at FROM reviews WHERE product_id = 1 ORDER BY rating DESC, created_at DESC, id DESC LIMIT 11"),
+        new ExpectedPlan("cart", "idx_cart_user_product",
+            "SELECT id, quantity FROM cart WHERE user_id = 1 AND product_id = 1"),
+        new ExpectedPlan("products", "idx_products_category",
+            "SELECT id, name, price FROM products WHERE category = 'electronics'"),
+        new ExpectedPlan("products", "idx_products_rating_stock",
+            "SELECT id, name, rating FROM products WHERE stock > 0 ORDER BY rating DESC LIMIT 20"),
+        new ExpectedPlan("outbox_events", "idx_outbox_status_next_attempt",
+            "SELECT id FROM outbox_events WHERE status = 'PENDING' AND next_attempt_at <= NOW() ORDER BY id LIMIT 100")
+    );
+
+    // 1..1000, for INSERT ... SELECT (the default cte_max_recursion_depth is 1000)
+    private static final String SEQ = "WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 1000) ";
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void emptyDatabase() {
+        dataSource = new DriverManagerDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        flyway().clean();
+    }
+
+    @Test
+    void hotQueriesUseTheirIndexes() {
+        flyway().migrate();
+        seed();
+
+        List<Executable> checks = new ArrayList<>();
+        for (ExpectedPlan expected : HOT_QUERIES) {
+            checks.add(() -> assertEquals(expected.index(), chosenIndex(expected), expected.sql()));
+        }
+        assertAll(checks);
+    }
+
+    @Test
+    void upgradesADatabaseCreatedBeforeMigrations() {
+        runScript("V1__baseline_schema.sql");
+        jdbcTemplate.update("INSERT INTO users (id, email, password) VALUES (1, 'legacy@example.com', 'x')");
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, total_amount, status, created_at) VALUES (41, 1, 10.00, 'PENDING', NOW(6))");
+        jdbcTemplate.update("INSERT INTO products (id, name, price) VALUES (1, 'Legacy product', 10.00)");
+        jdbcTemplate.update("INSERT INTO order_items (id, order_id, product_id, quantity, price) VALUES (7, 41, 1, 1, 10.00)");
+
+        flyway().migrate();
+
+        assertUpgraded();
+        assertNotNull(jdbcTemplate.queryForObject("SELECT next_transition_at FROM orders WHERE id = 41", Object.class),
+            "V2 backfills the due time of open orders");
+        // Pooled ids start past the AUTO_INCREMENT ids already in use
+        assertEquals(41L + 51, jdbcTemplate.queryForObject(
+            "SELECT next_val FROM id_generators WHERE sequence_name = 'orders'", Long.class));
+        assertEquals(7L + 51, jdbcTemplate.queryForObject(
+            "SELECT next_val FROM id_generators WHERE sequence_name = 'order_items'", Long.class));
+    }
+
+    @Test
+    void upgradesADatabaseThatAlreadyHasTheLaterTables() {
+        // ddl-auto=update kept adding tables and columns until migrations took over
+        runScript("V1__baseline_schema.sql");
+        runScript("V1_1__tables_added_before_migrations.sql");
+
+        flyway().migrate();
+
+        assertUpgraded();
+    }
+
+    private void assertUpgraded() {
+        assertEquals("6", flyway().info().current().getVersion().getVersion());
+        for (String table : List.of("outbox_events", "idempotency_records", "scheduler_leases", "id_generators")) {
+            assertEquals(1, count("SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?", table),
+                table);
+        }
+        for (String index : List.of("idx_orders_next_transition_at", "idx_orders_user_created")) {
+            assertTrue(count("SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() "
+                + "AND table_name = 'orders' AND index_name = ?", index) > 0, index);
+        }
+    }
+
+    private Flyway flyway() {
+        return Flyway.configure()
+            .dataSource(dataSource)
+            .baselineOnMigrate(true)
+            .baselineVersion("1")
+            .cleanDisabled(false)
+            .load();
+    }
+
+    private void runScript(String name) {
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/" + name)).execute(dataSource);
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+
+    /**
+     * Enough rows that the optimizer prefers an index over a scan wherever one fits: each
+     * hot query selects a few percent of its table or less.
+     */
+    private void seed() {
+        jdbcTemplate.update("INSERT INTO users (email, password) " + SEQ
+            + "SELECT CONCAT('user', n, '@example.com'), 'x' FROM seq WHERE n <= 50");
+        jdbcTemplate.update("INSERT INTO products (name, price, category, stock, rating, review_count) " + SEQ
+            + "SELECT CONCAT('Product ', n), 10.00, IF(n % 20 = 0, 'electronics', CONCAT('category-', n % 20)), "
+            + "n % 50, (n % 50) / 10, 0 FROM seq");
+        jdbcTemplate.update("INSERT INTO orders (user_id, total_amount, status, created_at, next_transition_at) " + SEQ
+            + "SELECT n % 50 + 1, 10.00, IF(n % 10 = 0, 'PENDING', 'DELIVERED'), NOW(6) - INTERVAL n MINUTE, "
+            + "CASE WHEN n % 20 = 0 THEN NOW(6) - INTERVAL 1 MINUTE WHEN n % 10 = 0 THEN NOW(6) + INTERVAL 1 HOUR END FROM seq");
+        jdbcTemplate.update("INSERT INTO order_items (order_id, product_id, quantity, price) "
+            + "SELECT o.id, (o.id * 7) % 1000 + 1, 1, 10.00 FROM orders o");
+        jdbcTemplate.update("INSERT INTO reviews (user_id, product_id, rating, created_at) " + SEQ
+            + "SELECT n % 50 + 1, n DIV 50 + 1, n % 5 + 1, NOW(6) - INTERVAL n MINUTE FROM seq");
+        jdbcTemplate.update("INSERT INTO cart (user_id, product_id, quantity) " + SEQ
+            + "SELECT n % 50 + 1, n DIV 50 + 1, 1 FROM seq");
+        jdbcTemplate.update("INSERT INTO outbox_events (event_type, payload, status, attempts, next_attempt_at, created_at) " + SEQ
+            + "SELECT 'ORDER_PLACED', '{}', IF(n % 50 = 0, 'PENDING', 'PROCESSED'), 0, NOW(6) - INTERVAL n SECOND, NOW(6) FROM seq");
+        jdbcTemplate.execute("ANALYZE TABLE users, products, orders, order_items, reviews, cart, outbox_events");
+    }
+
+    private String chosenIndex(ExpectedPlan expected) {
+        for (Map<String, Object> row : jdbcTemplate.queryForList("EXPLAIN " + expected.sql())) {
+            Object table = row.get("table");
+            if (table != null && (table.toString().equals(expected.table()) || isAliasOf(table.toString(), expected))) {
+                Object key = row.get("key");
+                return key != null ? key.toString() : null;
+            }
+        }
+        return null;
+    }
+
+    // EXPLAIN reports joined tables by their alias ("oi" for order_items)
+    private static boolean isAliasOf(String alias, ExpectedPlan expected) {
+        return expected.sql().contains(" " + expected.table() + " " + alias + " ");
+    }
+}
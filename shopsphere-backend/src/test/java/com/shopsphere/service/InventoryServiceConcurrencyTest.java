@@ -0,0 +1,175 @@
+package com.shopsphere.service;
+
+import com.shopsphere.event.ProductChangeListener;
+import com.shopsphere.exception.InsufficientStockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many checkouts race for the same few units; the conditional UPDATE must let exactly as
+ * many through as there is stock, and a failed line must roll back the whole order.
+ */
+@SpringJUnitConfig(InventoryServiceConcurrencyTest.Config.class)
+class InventoryServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ORDERS = 200;
+
+    @Configuration
+    @EnableTransactionManagement
+    static class Config {
+
+        @Bean
+        DataSource dataSource() {
+            return new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("inventory;MODE=MySQL;LOCK_TIMEOUT=10000")
+                .build();
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+            return new TransactionTemplate(transactionManager);
+        }
+
+        @Bean
+        InventoryService inventoryService() {
+            return new InventoryService();
+        }
+    }
+
+    // Cache and snapshot invalidation is not under test
+    @MockBean
+    private ProductChangeListener productChangeListener;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void createProducts() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS products");
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock INT, updated_at TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO products (id, stock) VALUES (1, 25), (2, 1000), (3, 40)");
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        List<Boolean> outcomes = race(() -> reserve(Map.of(1L, 1, 2L, 2)));
+
+        long succeeded = outcomes.stream().filter(ok -> ok).count();
+        assertEquals(25, succeeded, "exactly the available units are sold");
+        assertEquals(0, stock(1L));
+        // Orders that failed on product 1 must not keep their product 2 decrement
+        assertEquals(1000 - 2 * succeeded, stock(2L));
+    }
+
+    @Test
+    void overlappingMultiLineOrdersDoNotDeadlockOrOversell() throws Exception {
+        // Half the orders list the products in the opposite order; reserveStock sorts them by id
+        AtomicInteger next = new AtomicInteger();
+        List<Boolean> outcomes = race(() -> {
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            if (next.getAndIncrement() % 2 == 0) {
+                quantities.put(3L, 1);
+                quantities.put(2L, 1);
+            } else {
+                quantities.put(2L, 1);
+                quantities.put(3L, 1);
+            }
+            return reserve(quantities);
+        });
+
+        long succeeded = outcomes.stream().filter(ok -> ok).count();
+        assertEquals(40, succeeded);
+        assertEquals(0, stock(3L));
+        assertEquals(1000 - 40, stock(2L));
+    }
+
+    @Test
+    void requiresTheCallersTransaction() {
+        assertThrows(IllegalTransactionStateException.class, () -> inventoryService.reserveStock(Map.of(1L, 1)));
+        assertEquals(25, stock(1L));
+    }
+
+    private boolean reserve(Map<Long, Integer> quantities) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> inventoryService.reserveStock(quantities));
+            return true;
+        } catch (InsufficientStockException e) {
+            return false;
+        }
+    }
+
+    private List<Boolean> race(Callable<Boolean> order) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < ORDERS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return order.call();
+                }));
+            }
+            start.countDown();
+            List<Boolean> outcomes = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                outcomes.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return outcomes;
+        } finally {
+            pool.shutdownNow();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private int stock(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+    }
+}
@@ -0,0 +1,190 @@
+package com.shopsphere.support;
+
+import com.shopsphere.config.CategoryMigrationService;
+import com.shopsphere.config.StatementCountingDataSourcePostProcessor;
+import com.shopsphere.model.Order;
+import com.shopsphere.model.OrderItem;
+import com.shopsphere.model.Product;
+import com.shopsphere.model.Review;
+import com.shopsphere.model.User;
+import com.shopsphere.repository.OrderRepository;
+import com.shopsphere.repository.ProductRepository;
+import com.shopsphere.repository.ReviewRepository;
+import com.shopsphere.repository.UserRepository;
+import com.shopsphere.service.AdminSeederService;
+import com.shopsphere.service.AuthService;
+import com.shopsphere.service.DataSeederService;
+import com.shopsphere.service.DummyJsonProductSeeder;
+import com.shopsphere.service.ReviewSeederService;
+import com.shopsphere.util.SqlStatementTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Base for endpoint tests: the full application on H2 (see application-test.yml), driven
+ * through MockMvc, with every JDBC statement counted by the test-only
+ * StatementCountingDataSourcePostProcessor. Seeders are replaced by mocks and caching is
+ * off, so each request does its real database work.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import({StatementCountingDataSourcePostProcessor.class, EndpointTestSupport.TestConfig.class})
+public abstract class EndpointTestSupport {
+
+    // Per-request SQL time budget; generous for H2, catches runaway loops rather than slow plans
+    protected static final long MAX_SQL_MILLIS = 500;
+
+    @TestConfiguration
+    static class TestConfig {
+
+        @Bean
+        @Primary
+        CacheManager noOpCacheManager() {
+            return new NoOpCacheManager();
+        }
+    }
+
+    @MockBean
+    private DataSeederService dataSeederService;
+
+    @MockBean
+    private DummyJsonProductSeeder dummyJsonProductSeeder;
+
+    @MockBean
+    private ReviewSeederService reviewSeederService;
+
+    @MockBean
+    private AdminSeederService adminSeederService;
+
+    @MockBean
+    private CategoryMigrationService categoryMigrationService;
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    @Autowired
+    protected OrderRepository orderRepository;
+
+    @Autowired
+    protected ReviewRepository reviewRepository;
+
+    @Autowired
+    private AuthService authService;
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    protected User createUser() {
+        User user = new User();
+        user.setEmail("user" + SEQUENCE.incrementAndGet() + "@example.com");
+        user.setPassword("secret");
+        user.setFirstName("Test");
+        return userRepository.save(user);
+    }
+
+    protected String bearerToken(User user) {
+        return "Bearer " + authService.generateToken(user);
+    }
+
+    protected Product createProduct(String category) {
+        Product product = new Product();
+        product.setName("Product " + SEQUENCE.incrementAndGet());
+        product.setDescription("Test product");
+        product.setPrice(new BigDecimal("100.00"));
+        product.setCategory(category);
+        product.setStock(100);
+        return productRepository.save(product);
+    }
+
+    protected Order createOrder(User user, Order.OrderStatus status, Product... products) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(status);
+        order.setShippingAddress("1 Test Street, Test City, 12345, Testland");
+        order.setPaymentMethod("cod");
+        List<OrderItem> items = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (Product product : products) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(1);
+            item.setPrice(product.getPrice());
+            items.add(item);
+            total = total.add(product.getPrice());
+        }
+        order.setOrderItems(items);
+        order.setTotalAmount(total);
+        return orderRepository.save(order);
+    }
+
+    protected Review createReview(User user, Product product, int rating) {
+        Review review = new Review();
+        review.setUser(user);
+        review.setProduct(product);
+        review.setRating(rating);
+        review.setComment("Review " + SEQUENCE.incrementAndGet());
+        review.setReviewerName(user.getFirstName());
+        review.setVerifiedPurchase(false);
+        review.setCreatedAt(LocalDateTime.now().minusMinutes(SEQUENCE.incrementAndGet()));
+        review.setUpdatedAt(review.getCreatedAt());
+        return reviewRepository.save(review);
+    }
+
+    /**
+     * Performs the request, which must succeed, and returns the statements it executed.
+     */
+    protected SqlStatementTracker.Result measure(RequestBuilder request) throws Exception {
+        SqlStatementTracker.begin();
+        MvcResult result;
+        try {
+            result = mockMvc.perform(request).andReturn();
+        } catch (Exception e) {
+            SqlStatementTracker.end();
+            throw e;
+        }
+        SqlStatementTracker.Result measured = SqlStatementTracker.end();
+        int status = result.getResponse().getStatus();
+        assertTrue(status >= 200 && status < 300,
+            "expected success but got " + status + ": " + result.getResponse().getContentAsString());
+        return measured;
+    }
+
+    /**
+     * Fails when the request executes more than maxStatements statements or spends more
+     * than MAX_SQL_MILLIS in SQL; the message lists the executed SQL to spot the N+1.
+     */
+    protected void assertWithinBudget(String endpoint, int maxStatements, RequestBuilder request) throws Exception {
+        SqlStatementTracker.Result result = measure(request);
+        assertTrue(result.statements() <= maxStatements, endpoint + " executed " + result.statements()
+            + " statements (budget " + maxStatements + "):\n  " + String.join("\n  ", result.sql()));
+        assertTrue(result.elapsedMillis() <= MAX_SQL_MILLIS, endpoint + " spent " + result.elapsedMillis()
+            + " ms in SQL (budget " + MAX_SQL_MILLIS + " ms)");
+    }
+}
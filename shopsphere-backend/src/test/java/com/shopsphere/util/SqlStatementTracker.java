@@ -0,0 +1,60 @@
+package com.shopsphere.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-thread tally of the JDBC statements executed while a test request is being handled.
+ *
+ * Tracking is only active between begin() and end() on the same thread, so scheduler and
+ * worker threads are never counted. A JDBC batch counts as one statement (one round trip).
+ */
+public final class SqlStatementTracker {
+
+    // Enough to spot the repeated query of an N+1 without holding on to huge requests
+    private static final int MAX_RECORDED_SQL = 50;
+
+    private static final ThreadLocal<Tally> CURRENT = new ThreadLocal<>();
+
+    public record Result(int statements, long elapsedNanos, List<String> sql) {
+
+        public long elapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+    }
+
+    private static final class Tally {
+        private int statements;
+        private long elapsedNanos;
+        private final List<String> sql = new ArrayList<>();
+    }
+
+    private SqlStatementTracker() {
+    }
+
+    public static void begin() {
+        CURRENT.set(new Tally());
+    }
+
+    public static Result end() {
+        Tally tally = CURRENT.get();
+        CURRENT.remove();
+        return tally != null ? new Result(tally.statements, tally.elapsedNanos, tally.sql) : new Result(0, 0, List.of());
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    public static void record(String sql, long elapsedNanos) {
+        Tally tally = CURRENT.get();
+        if (tally == null) {
+            return;
+        }
+        tally.statements++;
+        tally.elapsedNanos += elapsedNanos;
+        if (tally.sql.size() < MAX_RECORDED_SQL) {
+            tally.sql.add(sql);
+        }
+    }
+}
@@ -5,7 +5,7 @@ import { fetchProductById, fetchRecommendations, fetchFrequentlyBoughtTogether,
 import ProductList from './ProductList';
 import { addToCart } from '../../store/slices/cartSlice';
 import { addToWishlist, removeFromWishlist, checkWishlistStatus } from '../../store/slices/wishlistSlice';
-import { fetchReviewsByProduct, createReview, checkCanReview, clearReviews } from '../../store/slices/reviewSlice';
+import { fetchReviewPage, createReview, checkCanReview, clearReviews, ReviewSort } from '../../store/slices/reviewSlice';
 import { toast } from 'react-hot-toast';
 import { 
   ShoppingCartIcon, 
@@ -29,7 +29,7 @@ const ProductDetailFlipkartStyle: React.FC = () => {
   const { currentProduct, recommendations, frequentlyBoughtTogether, products, loading, error } = useAppSelector(state => state.products);
   const { user, isAuthenticated } = useAppSelector(state => state.auth);
   const { wishlistStatus } = useAppSelector(state => state.wishlist);
-  const { reviews, loading: reviewsLoading, canReview, reviewReason } = useAppSelector(state => state.reviews);
+  const { reviews, loading: reviewsLoading, loadingMore: reviewsLoadingMore, sort: reviewSort, nextCursor, hasMore: hasMoreReviews, canReview, reviewReason } = useAppSelector(state => state.reviews);
   const userId = user?.id || 1;
   const [imageError, setImageError] = useState(false);
   const [selectedImage, setSelectedImage] = useState(0);
@@ -53,7 +53,7 @@ const ProductDetailFlipkartStyle: React.FC = () => {
         dispatch(fetchProductById(productId));
         dispatch(fetchRecommendations(productId));
         dispatch(fetchFrequentlyBoughtTogether(productId));
-        dispatch(fetchReviewsByProduct(productId));
+        dispatch(fetchReviewPage({ productId }));
         // Check wishlist status if user is authenticated
         if (isAuthenticated && user) {
           dispatch(checkWishlistStatus(productId));
@@ -255,7 +255,7 @@ const ProductDetailFlipkartStyle: React.FC = () => {
       setShowReviewForm(false);
       
       // Refresh reviews
-      dispatch(fetchReviewsByProduct(currentProduct.id));
+      dispatch(fetchReviewPage({ productId: currentProduct.id, sort: reviewSort }));
       dispatch(checkCanReview(currentProduct.id));
     } catch (error: any) {
       toast.error(error || 'Failed to submit review');
@@ -1471,7 +1471,7 @@ const ProductDetailFlipkartStyle: React.FC = () => {
                     : 'text-gray-600 hover:text-primary-600'
                 }`}
               >
-                Reviews ({reviews.length})
+                Reviews ({currentProduct.reviewCount ?? reviews.length})
               </button>
             </div>
           </div>
@@ -1511,7 +1511,19 @@ const ProductDetailFlipkartStyle: React.FC = () => {
             {activeTab === 'reviews' && (
               <div>
                 <div className="flex items-center justify-between mb-4">
-                  <h3 className="font-semibold text-gray-900 dark:text-white">Customer Reviews ({reviews.length})</h3>
+                  <div className="flex items-center gap-3">
+                    <h3 className="font-semibold text-gray-900 dark:text-white">Customer Reviews ({currentProduct.reviewCount ?? reviews.length})</h3>
+                    <select
+                      value={reviewSort}
+                      onChange={(e) => dispatch(fetchReviewPage({ productId: currentProduct.id, sort: e.target.value as ReviewSort }))}
+                      className="text-sm border border-gray-300 dark:border-gray-600 rounded px-2 py-1 bg-white dark:bg-gray-800 text-gray-700 dark:text-gray-300"
+                    >
+                      <option value="newest">Newest</option>
+                      <option value="highest">Highest rated</option>
+                      <option value="lowest">Lowest rated</option>
+                      <option value="verified">Verified first</option>
+                    </select>
+                  </div>
                   {isAuthenticated ? (
                     <button
                       onClick={() => setShowReviewForm(!showReviewForm)}
@@ -1526,6 +1538,28 @@ const ProductDetailFlipkartStyle: React.FC = () => {
                   )}
                 </div>
 
+                {/* Rating Distribution */}
+                {currentProduct.ratingDistribution && (
+                  <div className="mb-6 space-y-1 max-w-md">
+                    {[5, 4, 3, 2, 1].map((stars) => {
+                      const count = currentProduct.ratingDistribution?.[stars] ?? 0;
+                      const total = Object.values(currentProduct.ratingDistribution || {}).reduce((sum, n) => sum + n, 0);
+                      return (
+                        <div key={stars} className="flex items-center gap-2 text-sm">
+                          <span className="w-8 text-gray-600 dark:text-gray-400">{stars}★</span>
+                          <div className="flex-1 h-2 bg-gray-200 dark:bg-gray-700 rounded">
+                            <div
+                              className="h-2 bg-green-600 rounded"
+                              style={{ width: `${total > 0 ? (count / total) * 100 : 0}%` }}
+                            />
+                          </div>
+                          <span className="w-10 text-right text-gray-600 dark:text-gray-400">{count}</span>
+                        </div>
+                      );
+                    })}
+                  </div>
+                )}
+
                 {/* Review Form */}
                 {showReviewForm && isAuthenticated && (
                   <div className="mb-6 p-4 bg-gray-50 dark:bg-gray-800 rounded-lg border border-gray-200 dark:border-gray-700 transition-colors duration-200">
@@ -1620,6 +1654,17 @@ const ProductDetailFlipkartStyle: React.FC = () => {
                         )}
                       </div>
                     ))}
+                    {hasMoreReviews && (
+                      <div className="text-center pt-2">
+                        <button
+                          onClick={() => dispatch(fetchReviewPage({ productId: currentProduct.id, sort: reviewSort, cursor: nextCursor }))}
+                          disabled={reviewsLoadingMore}
+                          className="px-4 py-2 border border-primary-600 text-primary-600 dark:text-primary-400 rounded-lg hover:bg-primary-50 dark:hover:bg-gray-700 transition text-sm font-medium disabled:opacity-50"
+                        >
+                          {reviewsLoadingMore ? 'Loading...' : 'Load more reviews'}
+                        </button>
+                      </div>
+                    )}
                   </div>
                 )}
               </div>
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { useAppSelector, useAppDispatch } from '../hooks/redux';
 import { clearCart, updateCartQuantity, removeFromCart, fetchCart } from '../store/slices/cartSlice';
@@ -12,6 +12,8 @@ const Checkout: React.FC = () => {
   const dispatch = useAppDispatch();
   const navigate = useNavigate();
   const userId = user?.id || 1;
+  // One key per checkout so retried submissions never place a second order
+  const idempotencyKey = useRef(crypto.randomUUID());
 
   const [formData, setFormData] = useState({
     shippingAddress: '',
@@ -52,9 +54,33 @@ const Checkout: React.FC = () => {
     }
   }, [user, isAuthenticated]);
 
-  const subtotal = items.reduce((sum, item) => sum + item.product.price * item.quantity, 0);
-  const shipping = 10;
-  const total = subtotal + shipping;
+  // Subtotal, shipping and total come from the server, which prices the order the same way
+  const [quote, setQuote] = useState<{ subtotal: number; shippingFee: number; totalAmount: number } | null>(null);
+
+  useEffect(() => {
+    if (items.length === 0) {
+      setQuote(null);
+      return;
+    }
+    let cancelled = false;
+    axios.post('http://localhost:8080/api/orders/quote', {
+      items: items.map(item => ({ productId: item.product.id, quantity: item.quantity })),
+    })
+      .then(response => {
+        if (!cancelled) {
+          setQuote(response.data);
+        }
+      })
+      .catch(error => {
+        console.error('Failed to price order:', error);
+        if (!cancelled) {
+          setQuote(null);
+        }
+      });
+    return () => {
+      cancelled = true;
+    };
+  }, [items]);
 
   if (!isAuthenticated) {
     navigate('/login');
@@ -117,14 +143,18 @@ const Checkout: React.FC = () => {
   const handleSubmit = async (e: React.FormEvent) => {
     e.preventDefault();
 
+    if (!quote) {
+      toast.error('Could not price your order. Please try again.');
+      return;
+    }
+
     const orderData = {
       userId: user?.id,
+      // Prices and the total are computed by the server from the catalogue
       items: items.map(item => ({
         productId: item.product.id,
         quantity: item.quantity,
-        price: item.product.price,
       })),
-      totalAmount: total,
       shippingAddress: `${formData.shippingAddress}, ${formData.city}, ${formData.zipCode}, ${formData.country}`,
       paymentMethod: formData.paymentMethod,
       phone: formData.phone,
@@ -137,7 +167,9 @@ const Checkout: React.FC = () => {
     if (formData.paymentMethod === 'cod') {
       try {
         // Axios interceptor handles auth headers automatically
-        const response = await axios.post('http://localhost:8080/api/orders', orderData);
+        const response = await axios.post('http://localhost:8080/api/orders', orderData, {
+          headers: { 'Idempotency-Key': idempotencyKey.current },
+        });
 
         if (response.status === 200 && response.data) {
           dispatch(clearCart());
@@ -165,7 +197,7 @@ const Checkout: React.FC = () => {
         state: {
           paymentData: {
             orderData,
-            totalAmount: total,
+            totalAmount: quote.totalAmount,
             paymentMethod: formData.paymentMethod,
           },
         },
@@ -327,15 +359,15 @@ const Checkout: React.FC = () => {
             <div className="border-t pt-4 space-y-2">
               <div className="flex justify-between">
                 <span>Subtotal</span>
-                <span>{formatPrice(subtotal)}</span>
+                <span>{quote ? formatPrice(quote.subtotal) : '—'}</span>
               </div>
               <div className="flex justify-between">
                 <span>Shipping</span>
-                <span>{formatPrice(shipping)}</span>
+                <span>{quote ? formatPrice(quote.shippingFee) : '—'}</span>
               </div>
               <div className="flex justify-between font-bold text-lg border-t pt-2">
                 <span>Total</span>
-                <span>{formatPrice(total)}</span>
+                <span>{quote ? formatPrice(quote.totalAmount) : '—'}</span>
               </div>
             </div>
           </div>
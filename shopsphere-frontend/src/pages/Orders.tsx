@@ -17,17 +17,21 @@ interface Order {
   inTransitDate?: string;
   outForDeliveryDate?: string;
   deliveredDate?: string;
-  orderItems: Array<{
-    product: {
-      id: number;
-      name: string;
-      imageUrl: string;
-    };
-    quantity: number;
-    price: number;
-  }>;
+  itemCount: number;
 }
 
+interface OrderItem {
+  product: {
+    id: number;
+    name: string;
+    imageUrl: string;
+  };
+  quantity: number;
+  price: number;
+}
+
+const PAGE_SIZE = 10;
+
 const Orders: React.FC = () => {
   const { user, isAuthenticated } = useAppSelector(state => state.auth);
   const dispatch = useAppDispatch();
@@ -35,6 +39,15 @@ const Orders: React.FC = () => {
   const location = useLocation();
   const [orders, setOrders] = useState<Order[]>([]);
   const [loading, setLoading] = useState(true);
+  const [page, setPage] = useState(0);
+  const [hasNext, setHasNext] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
+  // Old delivered/cancelled orders are archived server-side and listed only on request
+  const [showingArchive, setShowingArchive] = useState(false);
+  const [archivedIds, setArchivedIds] = useState<Record<number, boolean>>({});
+  // Item details are loaded per order on demand from /orders/{id}
+  const [itemsByOrder, setItemsByOrder] = useState<Record<number, OrderItem[]>>({});
+  const [expandedOrders, setExpandedOrders] = useState<Record<number, boolean>>({});
   const [authRestoring, setAuthRestoring] = useState(false);
   const retryCountRef = useRef(0);
   const maxRetries = 5;
@@ -55,24 +68,27 @@ const Orders: React.FC = () => {
       try {
         console.log('Trying /my-orders endpoint (uses JWT token)...');
         // Axios interceptor handles auth headers automatically
-        response = await axios.get(`http://localhost:8080/api/orders/my-orders`);
+        response = await axios.get(`http://localhost:8080/api/orders/my-orders?page=0&size=${PAGE_SIZE}`);
         console.log('Successfully used /my-orders endpoint');
       } catch (myOrdersError: any) {
         console.warn('my-orders endpoint failed, trying user/{id} endpoint...', myOrdersError.response?.data);
         // Fallback to the original endpoint
         // Axios interceptor handles auth headers automatically
-        response = await axios.get(`http://localhost:8080/api/orders/user/${user?.id}`);
+        response = await axios.get(`http://localhost:8080/api/orders/user/${user?.id}?page=0&size=${PAGE_SIZE}`);
       }
       
       console.log('Orders API response status:', response.status);
       console.log('Orders API response data:', response.data);
-      // Ensure response.data is an array
-      const ordersData = Array.isArray(response.data) ? response.data : [];
+      // Response is one page of order summaries
+      const ordersData: Order[] = Array.isArray(response.data?.orders) ? response.data.orders : [];
       setOrders(ordersData);
+      setPage(0);
+      setHasNext(Boolean(response.data?.hasNext));
+      setShowingArchive(false);
+      setArchivedIds({});
       console.log('Fetched orders count:', ordersData.length);
       if (ordersData.length > 0) {
         console.log('First order:', ordersData[0]);
-        console.log('First order user ID:', ordersData[0].user?.id);
         retryCountRef.current = 0; // Reset retry count on success
       } else {
         console.warn('No orders found');
@@ -174,6 +190,64 @@ const Orders: React.FC = () => {
     );
   }
 
+  const loadMore = async () => {
+    setLoadingMore(true);
+    try {
+      const nextPage = page + 1;
+      const response = await axios.get(
+        `http://localhost:8080/api/orders/my-orders?page=${nextPage}&size=${PAGE_SIZE}&archived=${showingArchive}`
+      );
+      const more: Order[] = Array.isArray(response.data?.orders) ? response.data.orders : [];
+      appendOrders(more, showingArchive);
+      setPage(nextPage);
+      setHasNext(Boolean(response.data?.hasNext));
+    } catch (error: any) {
+      console.error('Failed to load more orders:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  const loadArchived = async () => {
+    setLoadingMore(true);
+    try {
+      const response = await axios.get(`http://localhost:8080/api/orders/my-orders?page=0&size=${PAGE_SIZE}&archived=true`);
+      const archived: Order[] = Array.isArray(response.data?.orders) ? response.data.orders : [];
+      appendOrders(archived, true);
+      setShowingArchive(true);
+      setPage(0);
+      setHasNext(Boolean(response.data?.hasNext));
+    } catch (error: any) {
+      console.error('Failed to load archived orders:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  const appendOrders = (more: Order[], archived: boolean) => {
+    setOrders(prev => [...prev, ...more]);
+    if (archived) {
+      setArchivedIds(prev => {
+        const next = { ...prev };
+        more.forEach(order => { next[order.id] = true; });
+        return next;
+      });
+    }
+  };
+
+  const toggleItems = async (orderId: number) => {
+    const expanded = !expandedOrders[orderId];
+    setExpandedOrders(prev => ({ ...prev, [orderId]: expanded }));
+    if (expanded && !itemsByOrder[orderId]) {
+      try {
+        const response = await axios.get(`http://localhost:8080/api/orders/${orderId}?archived=${Boolean(archivedIds[orderId])}`);
+        setItemsByOrder(prev => ({ ...prev, [orderId]: response.data?.orderItems || [] }));
+      } catch (error: any) {
+        console.error('Failed to load order items:', error);
+      }
+    }
+  };
+
   const handleRefresh = async () => {
     if (!user?.id || !isAuthenticated) return;
     
@@ -203,6 +277,17 @@ const Orders: React.FC = () => {
           >
             Start Shopping
           </Link>
+          {!showingArchive && (
+            <div className="mt-4">
+              <button
+                onClick={loadArchived}
+                disabled={loadingMore}
+                className="text-primary-600 hover:underline disabled:opacity-50"
+              >
+                {loadingMore ? 'Loading...' : 'Show archived orders'}
+              </button>
+            </div>
+          )}
         </div>
       ) : (
         <div className="space-y-6">
@@ -400,9 +485,18 @@ const Orders: React.FC = () => {
               </div>
 
               <div className="border-t pt-4">
-                <h4 className="font-semibold mb-2">Items:</h4>
+                <button
+                  onClick={() => toggleItems(order.id)}
+                  className="font-semibold mb-2 hover:text-primary-600"
+                >
+                  {expandedOrders[order.id] ? 'Hide' : 'Show'} items ({order.itemCount})
+                </button>
+                {expandedOrders[order.id] && (
                 <div className="space-y-2">
-                  {order.orderItems.map((item, index) => (
+                  {!itemsByOrder[order.id] && (
+                    <p className="text-sm text-gray-600">Loading items...</p>
+                  )}
+                  {(itemsByOrder[order.id] || []).map((item, index) => (
                     <div key={index} className="flex items-center justify-between">
                       <div className="flex items-center space-x-3">
                         <img
@@ -427,9 +521,32 @@ const Orders: React.FC = () => {
                     </div>
                   ))}
                 </div>
+                )}
               </div>
             </div>
           ))}
+          {hasNext && (
+            <div className="text-center">
+              <button
+                onClick={loadMore}
+                disabled={loadingMore}
+                className="bg-primary-600 text-white px-6 py-2 rounded-lg hover:bg-primary-700 transition disabled:opacity-50"
+              >
+                {loadingMore ? 'Loading...' : 'Load more orders'}
+              </button>
+            </div>
+          )}
+          {!hasNext && !showingArchive && (
+            <div className="text-center">
+              <button
+                onClick={loadArchived}
+                disabled={loadingMore}
+                className="text-primary-600 hover:underline disabled:opacity-50"
+              >
+                {loadingMore ? 'Loading...' : 'Show archived orders'}
+              </button>
+            </div>
+          )}
         </div>
       )}
     </div>
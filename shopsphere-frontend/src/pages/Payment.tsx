@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { useNavigate, useLocation } from 'react-router-dom';
 import axios from 'axios';
 import { toast } from 'react-hot-toast';
@@ -19,6 +19,9 @@ const Payment: React.FC = () => {
   
   const [paymentData, setPaymentData] = useState<PaymentData | null>(null);
   const [processing, setProcessing] = useState(false);
+  // Fixed for this payment so a retried submission replays the first order instead of placing another
+  const idempotencyKey = useRef(crypto.randomUUID());
+  const paymentId = useRef(`PAY_${Date.now()}_${Math.random().toString(36).substr(2, 9)}`);
   const [cardDetails, setCardDetails] = useState({
     cardNumber: '',
     expiryDate: '',
@@ -101,11 +104,13 @@ const Payment: React.FC = () => {
       const orderData = {
         ...paymentData.orderData,
         paymentVerified: true,
-        paymentId: `PAY_${Date.now()}_${Math.random().toString(36).substr(2, 9)}`,
+        paymentId: paymentId.current,
       };
 
       // Axios interceptor handles auth headers automatically
-      const response = await axios.post('http://localhost:8080/api/orders', orderData);
+      const response = await axios.post('http://localhost:8080/api/orders', orderData, {
+        headers: { 'Idempotency-Key': idempotencyKey.current },
+      });
 
       if (response.status === 200 && response.data) {
         dispatch(clearCart());
@@ -13,6 +13,7 @@ export interface Product {
   stock: number;
   rating: number;
   reviewCount: number;
+  ratingDistribution?: Record<number, number>;
 }
 
 interface ProductState {
@@ -3,7 +3,8 @@ import axios from '../../utils/axiosConfig';
 
 export interface Review {
   id: number;
-  userId: number;
+  // Absent from public product listings, which identify the author by reviewerName only
+  userId?: number;
   productId: number;
   rating: number;
   comment: string;
@@ -13,9 +14,15 @@ export interface Review {
   updatedAt: string;
 }
 
+export type ReviewSort = 'newest' | 'highest' | 'lowest' | 'verified';
+
 interface ReviewState {
   reviews: Review[];
   loading: boolean;
+  loadingMore: boolean;
+  sort: ReviewSort;
+  nextCursor: string | null;
+  hasMore: boolean;
   error: string | null;
   canReview: boolean;
   reviewReason: string | null;
@@ -24,6 +31,10 @@ interface ReviewState {
 const initialState: ReviewState = {
   reviews: [],
   loading: false,
+  loadingMore: false,
+  sort: 'newest',
+  nextCursor: null,
+  hasMore: false,
   error: null,
   canReview: false,
   reviewReason: null,
@@ -37,6 +48,19 @@ export const fetchReviewsByProduct = createAsyncThunk(
   }
 );
 
+// One page of reviews; pass the previous page's nextCursor to append the next one
+export const fetchReviewPage = createAsyncThunk(
+  'reviews/fetchPage',
+  async ({ productId, sort = 'newest', cursor }: { productId: number; sort?: ReviewSort; cursor?: string | null }) => {
+    const params = new URLSearchParams({ sort, size: '10' });
+    if (cursor) {
+      params.set('cursor', cursor);
+    }
+    const response = await axios.get(`/reviews/product/${productId}/page?${params.toString()}`);
+    return response.data;
+  }
+);
+
 export const createReview = createAsyncThunk(
   'reviews/create',
   async ({ productId, rating, comment }: { productId: number; rating: number; comment: string }, { rejectWithValue }) => {
@@ -71,6 +95,8 @@ const reviewSlice = createSlice({
     clearReviews: (state) => {
       state.reviews = [];
       state.error = null;
+      state.nextCursor = null;
+      state.hasMore = false;
     },
   },
   extraReducers: (builder) => {
@@ -87,6 +113,28 @@ const reviewSlice = createSlice({
         state.loading = false;
         state.error = action.error.message || 'Failed to fetch reviews';
       })
+      .addCase(fetchReviewPage.pending, (state, action) => {
+        if (action.meta.arg.cursor) {
+          state.loadingMore = true;
+        } else {
+          state.loading = true;
+          state.sort = action.meta.arg.sort || 'newest';
+        }
+        state.error = null;
+      })
+      .addCase(fetchReviewPage.fulfilled, (state, action) => {
+        state.loading = false;
+        state.loadingMore = false;
+        const page: Review[] = action.payload.reviews || [];
+        state.reviews = action.meta.arg.cursor ? [...state.reviews, ...page] : page;
+        state.nextCursor = action.payload.nextCursor || null;
+        state.hasMore = !!action.payload.hasNext;
+      })
+      .addCase(fetchReviewPage.rejected, (state, action) => {
+        state.loading = false;
+        state.loadingMore = false;
+        state.error = action.error.message || 'Failed to fetch reviews';
+      })
       .addCase(createReview.pending, (state) => {
         state.loading = true;
         state.error = null;